@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.raml.jaxrs.codegen.core.Configuration;
+import org.raml.jaxrs.codegen.core.Generator;
+import org.raml.model.Raml;
+import org.raml.parser.rule.ValidationResult;
+import org.raml.parser.visitor.RamlDocumentBuilder;
+import org.raml.parser.visitor.RamlValidationService;
+
+import com.sun.codemodel.JCodeModel;
+
+/**
+ * Benchmarks {@link Generator#run(java.net.URL, Configuration)} end to end, and each of its phases in
+ * isolation.
+ * <p>
+ * Run with: <code>java -jar target/benchmarks.jar</code>
+ * @author JAshe
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    /**
+     * A fresh output directory for each invocation
+     */
+    @State(Scope.Thread)
+    public static class Output {
+
+        private Configuration configuration;
+
+        @Setup(Level.Invocation)
+        public void setUp(final RamlSpecification specification) throws Exception {
+            configuration = specification.newConfiguration();
+        }
+    }
+
+    /**
+     * A generator ready to build resources from the RAML specification
+     */
+    @State(Scope.Thread)
+    public static class PreparedGenerator {
+
+        private PhaseGenerator generator;
+
+        @Setup(Level.Invocation)
+        public void setUp(final RamlSpecification specification) throws Exception {
+            generator = new PhaseGenerator();
+            generator.prepare(specification.getRaml(), specification.newConfiguration());
+        }
+    }
+
+    /**
+     * A generator with all resources built, ready to write them
+     */
+    @State(Scope.Thread)
+    public static class PopulatedGenerator {
+
+        private PhaseGenerator generator;
+
+        @Setup(Level.Invocation)
+        public void setUp(final RamlSpecification specification) throws Exception {
+            generator = new PhaseGenerator();
+            generator.prepare(specification.getRaml(), specification.newConfiguration());
+            generator.createResourceInterfaces();
+        }
+    }
+
+    @Benchmark
+    public Set<String> endToEnd(final RamlSpecification specification, final Output output) throws Exception {
+        return new Generator().run(specification.getRamlUrl(), output.configuration);
+    }
+
+    @Benchmark
+    public List<ValidationResult> validation(final RamlSpecification specification) {
+        return RamlValidationService.createDefault().validate(specification.getRamlContent(),
+            specification.getRamlUrl().toString());
+    }
+
+    @Benchmark
+    public Raml parsing(final RamlSpecification specification) {
+        return new RamlDocumentBuilder().build(specification.getRamlContent(),
+            specification.getRamlUrl().toString());
+    }
+
+    @Benchmark
+    public JCodeModel resourceInterfaces(final PreparedGenerator preparedGenerator) throws Exception {
+        return preparedGenerator.generator.createResourceInterfaces();
+    }
+
+    @Benchmark
+    public int schemaClasses(final PreparedGenerator preparedGenerator) throws Exception {
+        return preparedGenerator.generator.createSchemaClasses();
+    }
+
+    @Benchmark
+    public Set<String> codeGeneration(final PopulatedGenerator populatedGenerator) throws Exception {
+        return populatedGenerator.generator.generate();
+    }
+}
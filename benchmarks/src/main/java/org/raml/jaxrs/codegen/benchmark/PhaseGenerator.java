@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.raml.jaxrs.codegen.core.Configuration;
+import org.raml.jaxrs.codegen.core.Generator;
+import org.raml.model.Action;
+import org.raml.model.MimeType;
+import org.raml.model.Raml;
+import org.raml.model.Resource;
+import org.raml.model.Response;
+
+import com.sun.codemodel.JCodeModel;
+
+/**
+ * Exposes the individual generation phases of {@link Generator} so they can be benchmarked in
+ * isolation.
+ * @author JAshe
+ */
+public class PhaseGenerator extends Generator {
+
+    private Raml raml;
+
+    public void prepare(final Raml raml, final Configuration configuration) throws IOException {
+        this.raml = raml;
+
+        validate(configuration);
+        initialize(raml, configuration);
+    }
+
+    public JCodeModel createResourceInterfaces() throws Exception {
+        for (final Resource resource : raml.getResources().values()) {
+            createResourceInterface(resource);
+        }
+        return getContext().getCodeModel();
+    }
+
+    public int createSchemaClasses() throws Exception {
+        final List<MimeType> mimeTypes = new ArrayList<MimeType>();
+        collectMimeTypes(raml.getResources().values(), mimeTypes);
+
+        for (final MimeType mimeType : mimeTypes) {
+            getTypes().getResponseEntityClass(mimeType);
+        }
+        return mimeTypes.size();
+    }
+
+    public Set<String> generate() throws IOException {
+        return getContext().generate();
+    }
+
+    private static void collectMimeTypes(final Collection<Resource> resources, final List<MimeType> mimeTypes) {
+        for (final Resource resource : resources) {
+            for (final Action action : resource.getActions().values()) {
+                if (action.hasBody()) {
+                    mimeTypes.addAll(action.getBody().values());
+                }
+                for (final Response response : action.getResponses().values()) {
+                    if (response.hasBody()) {
+                        mimeTypes.addAll(response.getBody().values());
+                    }
+                }
+            }
+            collectMimeTypes(resource.getResources().values(), mimeTypes);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Generates reproducible synthetic RAML definitions for benchmarking and stress testing.
+ * <p>
+ * The same seed and options always produce the same RAML. Resources are nested in chains of
+ * <code>depth</code> resources; JSON bodies either reference a global schema or define an inline one.
+ * @author JAshe
+ */
+public class RamlCorpusGenerator {
+
+    private static final String[] ACTIONS = {"get", "post", "put", "delete", "patch", "head"};
+    private static final String[] MEDIA_TYPES = {"application/json", "application/xml", "text/plain", "text/csv",
+        "application/octet-stream"};
+    private static final int[] SUCCESS_CODES = {200, 201, 202, 203, 204, 206};
+    private static final int[] ERROR_CODES = {400, 401, 403, 404, 409, 412, 422, 500, 503};
+    private static final String[] PROPERTY_TYPES = {"string", "integer", "number", "boolean"};
+
+    private final long seed;
+    private int resourceCount = 10;
+    private int depth = 1;
+    private int actionsPerResource = 2;
+    private int responseCodes = 1;
+    private int mediaTypes = 1;
+    private int globalSchemas = 0;
+    private double inlineSchemaRatio = 1.0;
+    private boolean enumParameters = false;
+    private boolean wildcardHeaders = false;
+
+    public RamlCorpusGenerator(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param resourceCount the total number of resources, nested ones included.
+     */
+    public RamlCorpusGenerator resources(final int resourceCount) {
+        Validate.isTrue(resourceCount > 0, "resourceCount must be positive");
+
+        this.resourceCount = resourceCount;
+        return this;
+    }
+
+    /**
+     * @param depth the nesting depth of resources, 1 meaning only top level resources.
+     */
+    public RamlCorpusGenerator depth(final int depth) {
+        Validate.isTrue(depth > 0, "depth must be positive");
+
+        this.depth = depth;
+        return this;
+    }
+
+    public RamlCorpusGenerator actionsPerResource(final int actionsPerResource) {
+        Validate.isTrue(actionsPerResource > 0 && actionsPerResource <= ACTIONS.length,
+            "actionsPerResource must be between 1 and " + ACTIONS.length);
+
+        this.actionsPerResource = actionsPerResource;
+        return this;
+    }
+
+    /**
+     * @param responseCodes the number of response codes per action, the first one being a success.
+     */
+    public RamlCorpusGenerator responseCodes(final int responseCodes) {
+        Validate.isTrue(responseCodes > 0 && responseCodes <= 1 + ERROR_CODES.length,
+            "responseCodes must be between 1 and " + (1 + ERROR_CODES.length));
+
+        this.responseCodes = responseCodes;
+        return this;
+    }
+
+    /**
+     * @param mediaTypes the number of media types per body, the first one being JSON.
+     */
+    public RamlCorpusGenerator mediaTypes(final int mediaTypes) {
+        Validate.isTrue(mediaTypes > 0 && mediaTypes <= MEDIA_TYPES.length,
+            "mediaTypes must be between 1 and " + MEDIA_TYPES.length);
+
+        this.mediaTypes = mediaTypes;
+        return this;
+    }
+
+    /**
+     * @param globalSchemas the number of global JSON schemas, which JSON bodies reference at random.
+     */
+    public RamlCorpusGenerator globalSchemas(final int globalSchemas) {
+        Validate.isTrue(globalSchemas >= 0, "globalSchemas can't be negative");
+
+        this.globalSchemas = globalSchemas;
+        return this;
+    }
+
+    /**
+     * @param inlineSchemaRatio the ratio of JSON bodies defining an inline schema instead of referencing a
+     *            global one, ignored (always 1) without global schemas.
+     */
+    public RamlCorpusGenerator inlineSchemaRatio(final double inlineSchemaRatio) {
+        Validate.isTrue(inlineSchemaRatio >= 0 && inlineSchemaRatio <= 1,
+            "inlineSchemaRatio must be between 0 and 1");
+
+        this.inlineSchemaRatio = inlineSchemaRatio;
+        return this;
+    }
+
+    /**
+     * @param enumParameters adds an enum query parameter to GET actions.
+     */
+    public RamlCorpusGenerator enumParameters(final boolean enumParameters) {
+        this.enumParameters = enumParameters;
+        return this;
+    }
+
+    /**
+     * @param wildcardHeaders adds a <code>{?}</code> wildcard header to error responses.
+     */
+    public RamlCorpusGenerator wildcardHeaders(final boolean wildcardHeaders) {
+        this.wildcardHeaders = wildcardHeaders;
+        return this;
+    }
+
+    public String generate() {
+        final Random random = new Random(seed);
+        final StringBuilder raml = new StringBuilder();
+
+        raml.append("#%RAML 0.8\n---\ntitle: Synthetic API\nversion: v1\n");
+
+        if (globalSchemas > 0) {
+            raml.append("schemas:\n");
+            for (int i = 0; i < globalSchemas; i++) {
+                raml.append("  - schema").append(i).append(": |\n");
+                appendJsonSchema(raml, "      ", random);
+            }
+        }
+
+        for (int i = 0; i < resourceCount; i++) {
+            final int level = i % depth;
+            final String indent = StringUtils.repeat("  ", level);
+
+            if (level % 2 == 1) {
+                raml.append(indent).append("/{resource").append(i).append("Id}:\n");
+                raml.append(indent).append("  uriParameters:\n");
+                raml.append(indent).append("    resource").append(i).append("Id:\n");
+                raml.append(indent).append("      type: string\n");
+            } else {
+                raml.append(indent).append("/resource").append(i).append(":\n");
+            }
+
+            for (int j = 0; j < actionsPerResource; j++) {
+                appendAction(raml, indent + "  ", ACTIONS[j], random);
+            }
+        }
+
+        return raml.toString();
+    }
+
+    public void generate(final File ramlFile) throws IOException {
+        FileUtils.writeStringToFile(ramlFile, generate(), "UTF-8");
+    }
+
+    private void appendAction(final StringBuilder raml,
+                              final String indent,
+                              final String action,
+                              final Random random) {
+        raml.append(indent).append(action).append(":\n");
+
+        if ("get".equals(action)) {
+            raml.append(indent).append("  queryParameters:\n");
+            raml.append(indent).append("    page:\n");
+            raml.append(indent).append("      type: integer\n");
+            if (enumParameters) {
+                raml.append(indent).append("    sort:\n");
+                raml.append(indent).append("      enum: [ascending, descending, random")
+                    .append(random.nextInt(4)).append("]\n");
+            }
+        }
+
+        if ("post".equals(action) || "put".equals(action) || "patch".equals(action)) {
+            appendBody(raml, indent + "  ", random);
+        }
+
+        raml.append(indent).append("  responses:\n");
+        for (int i = 0; i < responseCodes; i++) {
+            final boolean success = i == 0;
+            final int code = success
+                    ? SUCCESS_CODES[random.nextInt(SUCCESS_CODES.length)]
+                    : ERROR_CODES[i - 1];
+
+            raml.append(indent).append("    ").append(code).append(":\n");
+            raml.append(indent).append("      description: Response ").append(code).append("\n");
+
+            if (!success && wildcardHeaders) {
+                raml.append(indent).append("      headers:\n");
+                raml.append(indent).append("        x-meta-{?}:\n");
+                raml.append(indent).append("          description: User specified metadata\n");
+            }
+
+            if (!"head".equals(action) && code != 204) {
+                appendBody(raml, indent + "      ", random);
+            }
+        }
+    }
+
+    private void appendBody(final StringBuilder raml, final String indent, final Random random) {
+        raml.append(indent).append("body:\n");
+        for (int i = 0; i < mediaTypes; i++) {
+            raml.append(indent).append("  ").append(MEDIA_TYPES[i]).append(":");
+
+            if (i > 0) {
+                raml.append(" !!null\n");
+            } else if (globalSchemas > 0 && random.nextDouble() >= inlineSchemaRatio) {
+                raml.append("\n").append(indent).append("    schema: schema")
+                    .append(random.nextInt(globalSchemas)).append("\n");
+            } else {
+                raml.append("\n").append(indent).append("    schema: |\n");
+                appendJsonSchema(raml, indent + "      ", random);
+            }
+        }
+    }
+
+    private static void appendJsonSchema(final StringBuilder raml, final String indent, final Random random) {
+        raml.append(indent).append("{ \"$schema\": \"http://json-schema.org/draft-03/schema\",\n");
+        raml.append(indent).append("  \"type\": \"object\",\n");
+        raml.append(indent).append("  \"properties\": {\n");
+
+        final int propertyCount = 1 + random.nextInt(8);
+        for (int i = 0; i < propertyCount; i++) {
+            raml.append(indent).append("    \"property").append(i).append("\": { \"type\": \"")
+                .append(PROPERTY_TYPES[random.nextInt(PROPERTY_TYPES.length)]).append("\" }")
+                .append(i < propertyCount - 1 ? ",\n" : "\n");
+        }
+
+        raml.append(indent).append("  }\n");
+        raml.append(indent).append("}\n");
+    }
+}
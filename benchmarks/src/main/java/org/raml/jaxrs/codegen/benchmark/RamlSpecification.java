@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.raml.jaxrs.codegen.core.Configuration;
+import org.raml.model.Raml;
+import org.raml.parser.visitor.RamlDocumentBuilder;
+
+import com.google.common.io.Files;
+
+/**
+ * A RAML definition to benchmark against: either one of the core test RAML files or a synthetic one.
+ * @author JAshe
+ */
+@State(Scope.Benchmark)
+public class RamlSpecification {
+
+    public static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    private static final long SEED = 42L;
+    private static final String BASE_PACKAGE_NAME = "org.raml.jaxrs.benchmark";
+    private static final Map<String, String> TEST_RAML_FILES = new HashMap<String, String>();
+
+    static {
+        TEST_RAML_FILES.put("full-config-with-patch", "/org/raml/full-config-with-patch.yaml");
+        TEST_RAML_FILES.put("param-types-with-repeat", "/org/raml/params/param-types-with-repeat.yaml");
+        TEST_RAML_FILES.put("sales-enablement-api-with-collections",
+            "/org/raml/integration/sales-enablement-api-with-collections.yaml");
+    }
+
+    @Param({"full-config-with-patch", "param-types-with-repeat", "sales-enablement-api-with-collections",
+        "synthetic-100", "synthetic-1000"})
+    public String name;
+
+    private File workDirectory;
+    private URL ramlUrl;
+    private String ramlContent;
+    private Raml raml;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDir();
+
+        if (name.startsWith(SYNTHETIC_PREFIX)) {
+            final int resourceCount = Integer.parseInt(StringUtils.substringAfter(name, SYNTHETIC_PREFIX));
+            final File ramlFile = new File(workDirectory, name + ".raml");
+            new RamlCorpusGenerator(SEED).resources(resourceCount).generate(ramlFile);
+            ramlUrl = ramlFile.toURI().toURL();
+        } else {
+            ramlUrl = getClass().getResource(TEST_RAML_FILES.get(name));
+        }
+
+        final InputStream ramlStream = ramlUrl.openStream();
+        try {
+            ramlContent = IOUtils.toString(ramlStream, "UTF-8");
+        } finally {
+            IOUtils.closeQuietly(ramlStream);
+        }
+
+        raml = new RamlDocumentBuilder().build(ramlContent, ramlUrl.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDirectory);
+    }
+
+    public URL getRamlUrl() {
+        return ramlUrl;
+    }
+
+    public String getRamlContent() {
+        return ramlContent;
+    }
+
+    public Raml getRaml() {
+        return raml;
+    }
+
+    /**
+     * @return a configuration generating into an empty output directory.
+     */
+    public Configuration newConfiguration() throws IOException {
+        final File outputDirectory = new File(workDirectory, "output");
+        FileUtils.forceMkdir(outputDirectory);
+        FileUtils.cleanDirectory(outputDirectory);
+
+        final Configuration configuration = new Configuration();
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setBasePackageName(BASE_PACKAGE_NAME);
+        return configuration;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the cost of building and reading a response through the default generated response
+ * factories, which wrap it in a response class, and through the lightweight ones, which return it
+ * directly.
+ * <p>
+ * The factories below are written the way the generator writes them for a
+ * <code>200: application/json</code> response with one header.
+ * @author JAshe
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResponseBenchmark {
+
+    /**
+     * The support class generated from the JAX-RS 1.1 response wrapper template.
+     */
+    public abstract static class ResponseWrapper extends Response {
+
+        private final Response delegate;
+
+        protected ResponseWrapper(final Response delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int getStatus() {
+            return delegate.getStatus();
+        }
+
+        @Override
+        public Object getEntity() {
+            return delegate.getEntity();
+        }
+
+        @Override
+        public MultivaluedMap<String, Object> getMetadata() {
+            return delegate.getMetadata();
+        }
+    }
+
+    public static class WrappedGetResponse extends ResponseWrapper {
+
+        private WrappedGetResponse(final Response delegate) {
+            super(delegate);
+        }
+
+        public static WrappedGetResponse withJsonOK(final String location, final Object entity) {
+            final ResponseBuilder responseBuilder = Response.status(200)
+                    .header("Content-Type", "application/json")
+                    .header("Location", location);
+            responseBuilder.entity(entity);
+            return new WrappedGetResponse(responseBuilder.build());
+        }
+    }
+
+    public static final class LightweightGetResponse {
+
+        private LightweightGetResponse() {
+        }
+
+        public static Response withJsonOK(final String location, final Object entity) {
+            final ResponseBuilder responseBuilder = Response.status(200)
+                    .header("Content-Type", "application/json")
+                    .header("Location", location);
+            responseBuilder.entity(entity);
+            return responseBuilder.build();
+        }
+    }
+
+    public String location = "/items/42";
+
+    public Object entity = "{\"id\":42}";
+
+    @Benchmark
+    public void wrapped(final Blackhole blackhole) {
+        consume(WrappedGetResponse.withJsonOK(location, entity), blackhole);
+    }
+
+    @Benchmark
+    public void lightweight(final Blackhole blackhole) {
+        consume(LightweightGetResponse.withJsonOK(location, entity), blackhole);
+    }
+
+    private static void consume(final Response response, final Blackhole blackhole) {
+        // what a JAX-RS runtime reads from a returned response
+        blackhole.consume(response.getStatus());
+        blackhole.consume(response.getEntity());
+        blackhole.consume(response.getMetadata());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.raml.jaxrs.codegen.core.Configuration;
+import org.raml.jaxrs.codegen.core.Generator;
+
+import com.google.common.io.Files;
+
+/**
+ * Benchmarks how {@link Generator} scales with the size of synthetic RAML definitions.
+ * <p>
+ * Being slow, these are single shot runs: use {@link ScalingStress} to also observe heap usage.
+ * @author JAshe
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScalingBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"100", "1000", "10000"})
+    public int resources;
+
+    @Param({"1", "8"})
+    public int depth;
+
+    @Param({"1", "3"})
+    public int responseCodes;
+
+    private File workDirectory;
+    private File ramlFile;
+    private Configuration configuration;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDir();
+        ramlFile = new File(workDirectory, "scaling.raml");
+
+        new RamlCorpusGenerator(SEED).resources(resources)
+            .depth(depth)
+            .actionsPerResource(4)
+            .responseCodes(responseCodes)
+            .mediaTypes(2)
+            .globalSchemas(resources / 10)
+            .inlineSchemaRatio(0.5)
+            .enumParameters(true)
+            .wildcardHeaders(true)
+            .generate(ramlFile);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpOutput() throws IOException {
+        final File outputDirectory = new File(workDirectory, "output");
+        FileUtils.forceMkdir(outputDirectory);
+        FileUtils.cleanDirectory(outputDirectory);
+
+        configuration = new Configuration();
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setBasePackageName("org.raml.jaxrs.benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDirectory);
+    }
+
+    @Benchmark
+    public Set<String> generate() throws Exception {
+        return new Generator().run(ramlFile.toURI().toURL(), configuration);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.raml.jaxrs.codegen.core.Configuration;
+import org.raml.jaxrs.codegen.core.Generator;
+
+import com.google.common.io.Files;
+
+/**
+ * Runs {@link Generator} against increasingly large synthetic RAML definitions and reports, for each
+ * size, the generation time and the peak heap usage.
+ * <p>
+ * Usage: <code>java -Xmx8g -cp target/benchmarks.jar org.raml.jaxrs.codegen.benchmark.ScalingStress
+ * [resources...]</code>, defaults to 100 1000 10000 resources. Each run nests resources 8 deep, with 5
+ * actions, 3 response codes, 2 media types and as many global schemas as resources: about 18 JSON
+ * bodies per resource, half of them with an inline schema.
+ * @author JAshe
+ */
+public class ScalingStress {
+
+    private static final long SEED = 42L;
+    private static final int[] DEFAULT_RESOURCE_COUNTS = {100, 1000, 10000};
+
+    public static void main(final String[] args) throws Exception {
+        int[] resourceCounts = DEFAULT_RESOURCE_COUNTS;
+        if (args.length > 0) {
+            resourceCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                resourceCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        final File workDirectory = Files.createTempDir();
+        try {
+            System.out.println(String.format("%10s %12s %10s %10s %14s", "resources", "raml (KB)", "files",
+                "time (ms)", "peak heap (MB)"));
+
+            for (final int resourceCount : resourceCounts) {
+                run(resourceCount, workDirectory);
+            }
+        } finally {
+            FileUtils.deleteDirectory(workDirectory);
+        }
+    }
+
+    private static void run(final int resourceCount, final File workDirectory) throws Exception {
+        final File ramlFile = new File(workDirectory, "stress-" + resourceCount + ".raml");
+        new RamlCorpusGenerator(SEED).resources(resourceCount)
+            .depth(8)
+            .actionsPerResource(5)
+            .responseCodes(3)
+            .mediaTypes(2)
+            .globalSchemas(resourceCount)
+            .inlineSchemaRatio(0.5)
+            .enumParameters(true)
+            .wildcardHeaders(true)
+            .generate(ramlFile);
+
+        final File outputDirectory = new File(workDirectory, "output-" + resourceCount);
+        FileUtils.forceMkdir(outputDirectory);
+
+        final Configuration configuration = new Configuration();
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setBasePackageName("org.raml.jaxrs.stress");
+
+        System.gc();
+        resetPeakHeapUsage();
+
+        final long start = System.nanoTime();
+        final Set<String> generatedFiles = new Generator().run(ramlFile.toURI().toURL(), configuration);
+        final long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+        System.out.println(String.format("%10d %12d %10d %10d %14d", resourceCount, ramlFile.length() / 1024,
+            generatedFiles.size(), elapsedMillis, getPeakHeapUsage() / (1024 * 1024)));
+
+        FileUtils.deleteDirectory(outputDirectory);
+    }
+
+    private static void resetPeakHeapUsage() {
+        for (final MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                memoryPool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long getPeakHeapUsage() {
+        long peakHeapUsage = 0;
+        for (final MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                peakHeapUsage += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        return peakHeapUsage;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.Validate;
+import org.raml.parser.loader.ResourceLoader;
+
+/**
+ * Keeps the content of fetched resources in memory, so the RAML root file and its included files
+ * are only read once while a RAML definition is validated then parsed.
+ * @author JAshe
+ */
+public class CachingResourceLoader implements ResourceLoader {
+
+    private final ResourceLoader delegate;
+    private final Map<String, byte[]> resources;
+
+    public CachingResourceLoader(final ResourceLoader delegate) {
+        Validate.notNull(delegate, "delegate can't be null");
+
+        this.delegate = delegate;
+
+        resources = new HashMap<String, byte[]>();
+    }
+
+    @Override
+    public InputStream fetchResource(final String resourceName) {
+        final byte[] content = getContent(resourceName);
+        return content != null ? new ByteArrayInputStream(content) : null;
+    }
+
+    public byte[] getContent(final String resourceName) {
+        synchronized (resources) {
+            if (resources.containsKey(resourceName)) {
+                return resources.get(resourceName);
+            }
+        }
+
+        final InputStream resource = delegate.fetchResource(resourceName);
+        byte[] content = null;
+
+        if (resource != null) {
+            try {
+                content = IOUtils.toByteArray(resource);
+            } catch (final IOException ioe) {
+                throw new IllegalStateException("Failed to read resource: " + resourceName, ioe);
+            } finally {
+                IOUtils.closeQuietly(resource);
+            }
+        }
+
+        synchronized (resources) {
+            resources.put(resourceName, content);
+        }
+        return content;
+    }
+}
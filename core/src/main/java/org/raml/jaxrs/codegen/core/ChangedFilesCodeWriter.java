@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.Validate;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JPackage;
+
+/**
+ * Renders generated files in memory and only writes them to disk if their content differs from the
+ * existing files, so unchanged files keep their timestamps and don't trigger recompilations.
+ * @author JAshe
+ */
+public class ChangedFilesCodeWriter extends CodeWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangedFilesCodeWriter.class);
+
+    private final File outputDirectory;
+    private final GenerationMetrics generationMetrics;
+    private final ExecutorService executorService;
+    private final List<Future<Boolean>> pendingWrites;
+
+    private int writtenFiles;
+    private int unchangedFiles;
+
+    /**
+     * @param writerThreads the number of threads comparing and writing files, 1 to do it in the
+     *            generation thread.
+     */
+    public ChangedFilesCodeWriter(final File outputDirectory, final int writerThreads) {
+        this(outputDirectory, writerThreads, null);
+    }
+
+    /**
+     * @param generationMetrics when not null, counts the files actually written and their bytes.
+     */
+    public ChangedFilesCodeWriter(final File outputDirectory,
+            final int writerThreads,
+            final GenerationMetrics generationMetrics) {
+        Validate.notNull(outputDirectory, "outputDirectory can't be null");
+
+        this.outputDirectory = outputDirectory;
+        this.generationMetrics = generationMetrics;
+
+        executorService = writerThreads > 1 ? Executors.newFixedThreadPool(writerThreads) : null;
+        pendingWrites = new ArrayList<Future<Boolean>>();
+    }
+
+    @Override
+    public OutputStream openBinary(final JPackage pkg, final String fileName) throws IOException {
+        final File file = new File(getPackageDirectory(pkg), fileName);
+
+        return new ByteArrayOutputStream() {
+            private boolean closed = false;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    super.close();
+                    writeFile(file, toByteArray());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executorService == null) {
+            logSummary();
+            return;
+        }
+
+        try {
+            for (final Future<Boolean> pendingWrite : pendingWrites) {
+                countWrite(pendingWrite.get());
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing generated files", ie);
+        } catch (final ExecutionException ee) {
+            throw new IOException("Failed to write generated files", ee.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        logSummary();
+    }
+
+    private void writeFile(final File file, final byte[] content) throws IOException {
+        if (executorService == null) {
+            countWrite(writeIfChanged(file, content));
+            return;
+        }
+
+        pendingWrites.add(executorService.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return writeIfChanged(file, content);
+            }
+        }));
+    }
+
+    private boolean writeIfChanged(final File file, final byte[] content) throws IOException {
+        if (file.isFile() && (file.length() == content.length)
+                && Digests.digest(FileUtils.readFileToByteArray(file)).equals(Digests.digest(content))) {
+            return false;
+        }
+
+        FileUtils.writeByteArrayToFile(file, content);
+
+        if (generationMetrics != null) {
+            generationMetrics.increment(Counter.FILES_WRITTEN);
+            generationMetrics.add(Counter.BYTES_WRITTEN, content.length);
+        }
+        return true;
+    }
+
+    private void countWrite(final boolean written) {
+        if (written) {
+            writtenFiles++;
+        } else {
+            unchangedFiles++;
+        }
+    }
+
+    private void logSummary() {
+        LOGGER.info("Wrote " + writtenFiles + " changed file(s), left " + unchangedFiles
+                + " unchanged file(s) untouched in: " + outputDirectory);
+    }
+
+    private File getPackageDirectory(final JPackage pkg) {
+        return pkg.isUnnamed()
+                ? outputDirectory
+                : new File(outputDirectory, pkg.name().replace('.', File.separatorChar));
+    }
+}
@@ -64,7 +64,51 @@ public class Configuration {
     private boolean useJsr303Annotations = false;
     private AnnotationStyle jsonMapper = AnnotationStyle.JACKSON1;
     private File schemaLocation;
-    
+    private SharedModelRegistry sharedModelRegistry;
+    private boolean writeOnlyChangedFiles = false;
+    private int writerThreads = 1;
+    private GenerationMetrics generationMetrics;
+    private boolean streamingGeneration = false;
+    private int resourceThreads = 1;
+    private int schemaThreads = 1;
+    private RamlModelCache ramlModelCache;
+    private SourceJarWriter sourceJarWriter;
+    private boolean mediaTypeConstants = false;
+    private boolean lightweightResponses = false;
+    private boolean cachedResponses = false;
+    private boolean asyncResponses = false;
+    private boolean streamingArrayResponses = false;
+
+    public Configuration() {
+    }
+
+    /**
+     * Creates a copy of an existing configuration, which can then be modified without affecting the
+     * original one (for example to generate several RAML files concurrently).
+     */
+    public Configuration(final Configuration configuration) {
+        outputDirectory = configuration.outputDirectory;
+        jaxrsVersion = configuration.jaxrsVersion;
+        basePackageName = configuration.basePackageName;
+        useJsr303Annotations = configuration.useJsr303Annotations;
+        jsonMapper = configuration.jsonMapper;
+        schemaLocation = configuration.schemaLocation;
+        sharedModelRegistry = configuration.sharedModelRegistry;
+        writeOnlyChangedFiles = configuration.writeOnlyChangedFiles;
+        writerThreads = configuration.writerThreads;
+        generationMetrics = configuration.generationMetrics;
+        streamingGeneration = configuration.streamingGeneration;
+        resourceThreads = configuration.resourceThreads;
+        schemaThreads = configuration.schemaThreads;
+        ramlModelCache = configuration.ramlModelCache;
+        sourceJarWriter = configuration.sourceJarWriter;
+        mediaTypeConstants = configuration.mediaTypeConstants;
+        lightweightResponses = configuration.lightweightResponses;
+        cachedResponses = configuration.cachedResponses;
+        asyncResponses = configuration.asyncResponses;
+        streamingArrayResponses = configuration.streamingArrayResponses;
+    }
+
     public GenerationConfig createJsonSchemaGenerationConfig() {
         return new DefaultGenerationConfig() {
             @Override
@@ -141,4 +185,178 @@ public class Configuration {
     public void setSchemaLocation(File dir) {
         schemaLocation = dir;
     }
+
+    public SharedModelRegistry getSharedModelRegistry() {
+        return sharedModelRegistry;
+    }
+
+    /**
+     * @param sharedModelRegistry when set, model classes are generated in the registry's package and
+     *            shared with all the other generations using the same registry.
+     */
+    public void setSharedModelRegistry(final SharedModelRegistry sharedModelRegistry) {
+        this.sharedModelRegistry = sharedModelRegistry;
+    }
+
+    public boolean isWriteOnlyChangedFiles() {
+        return writeOnlyChangedFiles;
+    }
+
+    /**
+     * @param writeOnlyChangedFiles when true, generated files are only written if their content has
+     *            changed, which preserves the timestamps of unchanged files.
+     */
+    public void setWriteOnlyChangedFiles(final boolean writeOnlyChangedFiles) {
+        this.writeOnlyChangedFiles = writeOnlyChangedFiles;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    /**
+     * @param writerThreads the number of threads used to compare and write changed files.
+     */
+    public void setWriterThreads(final int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    public GenerationMetrics getGenerationMetrics() {
+        return generationMetrics;
+    }
+
+    /**
+     * @param generationMetrics when set, records the timings and counts of the generations using this
+     *            configuration (and its copies).
+     */
+    public void setGenerationMetrics(final GenerationMetrics generationMetrics) {
+        this.generationMetrics = generationMetrics;
+    }
+
+    public boolean isStreamingGeneration() {
+        return streamingGeneration;
+    }
+
+    /**
+     * @param streamingGeneration when true, each top-level resource is written as soon as it is
+     *            generated and then released, which bounds the memory used by the generation to the
+     *            largest resource instead of the whole API.
+     */
+    public void setStreamingGeneration(final boolean streamingGeneration) {
+        this.streamingGeneration = streamingGeneration;
+    }
+
+    public int getResourceThreads() {
+        return resourceThreads;
+    }
+
+    /**
+     * @param resourceThreads the number of threads generating the top-level resources of a RAML file
+     *            concurrently, which gives the same output as a serial generation. Can't be combined
+     *            with streaming generation.
+     */
+    public void setResourceThreads(final int resourceThreads) {
+        this.resourceThreads = resourceThreads;
+    }
+
+    public int getSchemaThreads() {
+        return schemaThreads;
+    }
+
+    /**
+     * @param schemaThreads when greater than 1, all the JSON schemas of a RAML file are converted to
+     *            classes up front, by this number of threads, instead of lazily while building
+     *            resources.
+     */
+    public void setSchemaThreads(final int schemaThreads) {
+        this.schemaThreads = schemaThreads;
+    }
+
+    public RamlModelCache getRamlModelCache() {
+        return ramlModelCache;
+    }
+
+    /**
+     * @param ramlModelCache when set, the parsed models of RAML files are cached there and reused as
+     *            long as neither the RAML files nor the resources they include change.
+     */
+    public void setRamlModelCache(final RamlModelCache ramlModelCache) {
+        this.ramlModelCache = ramlModelCache;
+    }
+
+    public SourceJarWriter getSourceJarWriter() {
+        return sourceJarWriter;
+    }
+
+    /**
+     * @param sourceJarWriter when set, generated sources are written into its JAR instead of the
+     *            output directory, which isn't needed then.
+     */
+    public void setSourceJarWriter(final SourceJarWriter sourceJarWriter) {
+        this.sourceJarWriter = sourceJarWriter;
+    }
+
+    public boolean isMediaTypeConstants() {
+        return mediaTypeConstants;
+    }
+
+    /**
+     * @param mediaTypeConstants when true, response factories set their content type with MediaType
+     *            constants, parsed once per response class, instead of a Content-Type header string
+     *            parsed for each response.
+     */
+    public void setMediaTypeConstants(final boolean mediaTypeConstants) {
+        this.mediaTypeConstants = mediaTypeConstants;
+    }
+
+    public boolean isLightweightResponses() {
+        return lightweightResponses;
+    }
+
+    /**
+     * @param lightweightResponses when true, resource methods return {@link javax.ws.rs.core.Response}
+     *            and their static response factories build it directly, instead of wrapping it in a
+     *            generated response class.
+     */
+    public void setLightweightResponses(final boolean lightweightResponses) {
+        this.lightweightResponses = lightweightResponses;
+    }
+
+    public boolean isCachedResponses() {
+        return cachedResponses;
+    }
+
+    /**
+     * @param cachedResponses when true and targeting JAX-RS 1.1, response factories without any
+     *            argument (no entity nor header) build their response once, as a template, and then
+     *            return a copy of it for each call.
+     */
+    public void setCachedResponses(final boolean cachedResponses) {
+        this.cachedResponses = cachedResponses;
+    }
+
+    public boolean isAsyncResponses() {
+        return asyncResponses;
+    }
+
+    /**
+     * @param asyncResponses when true, resource methods return nothing and take a suspended
+     *            AsyncResponse instead, to resume with their response class. Requires JAX-RS 2.0.
+     */
+    public void setAsyncResponses(final boolean asyncResponses) {
+        this.asyncResponses = asyncResponses;
+    }
+
+    public boolean isStreamingArrayResponses() {
+        return streamingArrayResponses;
+    }
+
+    /**
+     * @param streamingArrayResponses when true, JSON responses whose schema is an array get an
+     *            additional factory taking an iterator of their elements, which are serialized one by
+     *            one with the configured JSON mapper instead of being held in memory all together.
+     */
+    public void setStreamingArrayResponses(final boolean streamingArrayResponses) {
+        this.streamingArrayResponses = streamingArrayResponses;
+    }
 }
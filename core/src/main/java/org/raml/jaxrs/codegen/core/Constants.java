@@ -18,9 +18,11 @@ package org.raml.jaxrs.codegen.core;
 import java.lang.annotation.Annotation;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ws.rs.DELETE;
@@ -29,6 +31,7 @@ import javax.ws.rs.HEAD;
 import javax.ws.rs.OPTIONS;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
+import javax.ws.rs.core.MediaType;
 
 /**
  * Contains needed constants
@@ -48,6 +51,34 @@ public abstract class Constants {
     public static final List<Class<? extends Annotation>> JAXRS_HTTP_METHODS = Arrays.asList(DELETE.class,
             GET.class, HEAD.class, OPTIONS.class, POST.class, PUT.class);
 
+    /**
+     * The MediaType constants of JAX-RS 1.1, also part of JAX-RS 2.0, keyed by media type
+     */
+    public static final Map<String, String> JAXRS_MEDIA_TYPE_CONSTANTS;
+
+    static {
+        final Map<String, String> mediaTypeConstants = new HashMap<String, String>();
+        mediaTypeConstants.put(MediaType.WILDCARD, "WILDCARD_TYPE");
+        mediaTypeConstants.put(MediaType.APPLICATION_XML, "APPLICATION_XML_TYPE");
+        mediaTypeConstants.put(MediaType.APPLICATION_ATOM_XML, "APPLICATION_ATOM_XML_TYPE");
+        mediaTypeConstants.put(MediaType.APPLICATION_XHTML_XML, "APPLICATION_XHTML_XML_TYPE");
+        mediaTypeConstants.put(MediaType.APPLICATION_SVG_XML, "APPLICATION_SVG_XML_TYPE");
+        mediaTypeConstants.put(MediaType.APPLICATION_JSON, "APPLICATION_JSON_TYPE");
+        mediaTypeConstants.put(MediaType.APPLICATION_FORM_URLENCODED, "APPLICATION_FORM_URLENCODED_TYPE");
+        mediaTypeConstants.put(MediaType.MULTIPART_FORM_DATA, "MULTIPART_FORM_DATA_TYPE");
+        mediaTypeConstants.put(MediaType.APPLICATION_OCTET_STREAM, "APPLICATION_OCTET_STREAM_TYPE");
+        mediaTypeConstants.put(MediaType.TEXT_PLAIN, "TEXT_PLAIN_TYPE");
+        mediaTypeConstants.put(MediaType.TEXT_XML, "TEXT_XML_TYPE");
+        mediaTypeConstants.put(MediaType.TEXT_HTML, "TEXT_HTML_TYPE");
+        JAXRS_MEDIA_TYPE_CONSTANTS = Collections.unmodifiableMap(mediaTypeConstants);
+    }
+
+    /**
+     * JAX-RS 2.0 classes, which aren't on the generator's JAX-RS 1.1 class path
+     */
+    public static final String JAXRS_ASYNC_RESPONSE_CLASS = "javax.ws.rs.container.AsyncResponse";
+    public static final String JAXRS_SUSPENDED_ANNOTATION_CLASS = "javax.ws.rs.container.Suspended";
+
     public static final Locale DEFAULT_LOCALE = Locale.ENGLISH;
 
     public static final String RESPONSE_HEADER_WILDCARD_SYMBOL = "{?}";
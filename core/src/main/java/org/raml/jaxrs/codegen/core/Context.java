@@ -15,22 +15,28 @@
  */
 package org.raml.jaxrs.codegen.core;
 
-import com.google.common.io.Files;
+import com.sun.codemodel.CodeWriter;
 import com.sun.codemodel.JAnnotatable;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JType;
-import java.io.BufferedWriter;
+import com.sun.codemodel.writer.FileCodeWriter;
+import com.sun.codemodel.writer.FilterCodeWriter;
+import com.sun.codemodel.writer.ProgressCodeWriter;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.FilterWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -39,27 +45,42 @@ import java.lang.annotation.Target;
 import java.net.URI;
 import java.net.URL;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.ws.rs.HttpMethod;
-import org.apache.commons.io.FileUtils;
+import javax.ws.rs.core.MediaType;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.io.output.NullWriter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
+import org.jsonschema2pojo.AnnotationStyle;
 import org.jsonschema2pojo.AnnotatorFactory;
 import org.jsonschema2pojo.GenerationConfig;
 import org.jsonschema2pojo.SchemaGenerator;
 import org.jsonschema2pojo.SchemaMapper;
-import org.jsonschema2pojo.SchemaStore;
 import org.jsonschema2pojo.rules.RuleFactory;
 import static org.raml.jaxrs.codegen.core.Constants.JAXRS_HTTP_METHODS;
+import static org.raml.jaxrs.codegen.core.Constants.JAXRS_MEDIA_TYPE_CONSTANTS;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Counter;
 import org.raml.model.Raml;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,17 +94,47 @@ public class Context {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Context.class);
 
+    // the standard HTTP method annotations, shared by all contexts
+    private static final Map<String, Class<? extends Annotation>> JAXRS_HTTP_METHOD_ANNOTATIONS;
+
+    static {
+        final Map<String, Class<? extends Annotation>> httpMethodAnnotations =
+                new HashMap<String, Class<? extends Annotation>>();
+        for (final Class<? extends Annotation> clazz : JAXRS_HTTP_METHODS) {
+            httpMethodAnnotations.put(clazz.getSimpleName(), clazz);
+        }
+        JAXRS_HTTP_METHOD_ANNOTATIONS = Collections.unmodifiableMap(httpMethodAnnotations);
+    }
+
+    // serializes concurrent writes to the same output directory (several RAML files can share it)
+    private static final ConcurrentMap<String, Object> OUTPUT_DIRECTORY_LOCKS = new ConcurrentHashMap<String, Object>();
+
     private final Configuration configuration;
     private final Raml raml;
-    private final JCodeModel codeModel;
-    private final Map<String, Set<String>> resourcesMethods;
-    private final Map<String, Object> httpMethodAnnotations;
-
+    private JCodeModel codeModel;
+    private final NameRegistry resourceInterfaceNames;
+    private final Map<String, NameRegistry> resourcesMethods;
+    private final Map<JDefinedClass, Map<String, JDefinedClass>> resourcesNestedClasses;
+    private final Map<String, JClass> customHttpMethodAnnotations;
+    private final Map<JDefinedClass, Map<String, JFieldVar>> responsesMediaTypeConstants;
+    private final List<JCodeModel> mergedCodeModels;
+
+    private final RamlSchemaStore schemaStore;
     private final SchemaMapper schemaMapper;
+    private final Set<String> sharedModelFiles;
+    private final Set<String> flushedModelClasses;
+    private final Map<String, JDefinedClass> reservedModelClasses;
+    private final GenerationMetrics generationMetrics;
 
     private boolean shouldGenerateResponseWrapper = false;
+    private boolean shouldGenerateResponseHeaders = false;
+    private boolean shouldGenerateJsonArrayOutput = false;
     private JDefinedClass currentResourceInterface;
-    private final File globalSchemaStore;
+    private final URI schemaLocation;
+
+    private CodeWriter codeWriter;
+    private ByteArrayOutputStream writtenFiles;
+    private PrintStream writtenFilesStream;
 
     public Context(final Configuration configuration, final Raml raml) throws IOException {
         Validate.notNull(configuration, "configuration can't be null");
@@ -92,28 +143,31 @@ public class Context {
         this.configuration = configuration;
         this.raml = raml;
 
+        // metrics are recorded in a throwaway instance when not requested
+        generationMetrics = configuration.getGenerationMetrics() != null
+                ? configuration.getGenerationMetrics()
+                : new GenerationMetrics();
+
         codeModel = new JCodeModel();
 
-        resourcesMethods = new HashMap<String, Set<String>>();
+        resourceInterfaceNames = new NameRegistry();
+        resourcesMethods = new LinkedHashMap<String, NameRegistry>();
+        resourcesNestedClasses = new LinkedHashMap<JDefinedClass, Map<String, JDefinedClass>>();
+        mergedCodeModels = new ArrayList<JCodeModel>();
+        sharedModelFiles = new HashSet<String>();
+        flushedModelClasses = new HashSet<String>();
+        reservedModelClasses = new HashMap<String, JDefinedClass>();
 
-        // prime the HTTP method annotation cache
-        httpMethodAnnotations = new HashMap<String, Object>();
-        for (final Class<? extends Annotation> clazz : JAXRS_HTTP_METHODS) {
-            httpMethodAnnotations.put(clazz.getSimpleName(), clazz);
-        }
+        customHttpMethodAnnotations = new LinkedHashMap<String, JClass>();
+        responsesMediaTypeConstants = new LinkedHashMap<JDefinedClass, Map<String, JFieldVar>>();
 
-        // write all global schemas to a temporary directory
-        globalSchemaStore = Files.createTempDir();
-        for (final Entry<String, String> nameAndSchema : raml.getConsolidatedSchemas().entrySet()) {
-            final File schemaFile = new File(globalSchemaStore, nameAndSchema.getKey());
-            FileUtils.writeStringToFile(schemaFile, nameAndSchema.getValue());
-        }
+        // schemas are kept in memory, references are resolved against the schema location
+        schemaLocation = configuration.getSchemaLocation() != null
+                ? configuration.getSchemaLocation().toURI()
+                : null;
 
-        // configure the JSON -> POJO generator
-        final GenerationConfig jsonSchemaGenerationConfig = configuration.createJsonSchemaGenerationConfig();
-        schemaMapper = new SchemaMapper(new RuleFactory(jsonSchemaGenerationConfig,
-                new AnnotatorFactory().getAnnotator(jsonSchemaGenerationConfig.getAnnotationStyle()),
-                new SchemaStore()), new SchemaGenerator());
+        schemaStore = createSchemaStore();
+        schemaMapper = createSchemaMapper(schemaStore);
     }
 
     public JCodeModel getCodeModel() {
@@ -121,41 +175,129 @@ public class Context {
     }
 
     public Set<String> generate() throws IOException {
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        final PrintStream ps = new PrintStream(baos, false, "UTF-8");
-        codeModel.build(configuration.getOutputDirectory(), ps);
-        ps.close();
-
         final Set<String> generatedFiles = new HashSet<String>();
-        if (shouldGenerateResponseWrapper) {
-            generatedFiles.add(generateResponseWrapper());
-        }
-        generatedFiles.addAll(Arrays.asList(StringUtils.split(baos.toString())));
 
-        try {
-            FileUtils.deleteDirectory(globalSchemaStore);
-        } catch (final Exception e) {
-            LOGGER.warn("Failed to delete temporary directory: " + globalSchemaStore);
+        synchronized (getOutputDirectoryLock()) {
+            final CodeWriter codeWriter = getCodeWriter();
+
+            if (shouldGenerateResponseWrapper) {
+                generateSupportClass(codeWriter, "ResponseWrapper."
+                        + configuration.getJaxrsVersion().toString().toLowerCase(), "ResponseWrapper");
+            }
+            if (shouldGenerateResponseHeaders) {
+                generateSupportClass(codeWriter, "ResponseHeaders", "ResponseHeaders");
+            }
+            if (shouldGenerateJsonArrayOutput) {
+                generateSupportClass(codeWriter, "JsonArrayOutput." + getJsonArrayOutputFlavor(), "JsonArrayOutput");
+            }
+
+            releaseModelClassNames();
+            codeModel.build(new NonClosingCodeWriter(codeWriter));
+            for (final JCodeModel mergedCodeModel : mergedCodeModels) {
+                mergedCodeModel.build(new NonClosingCodeWriter(codeWriter));
+            }
+
+            codeWriter.close();
+            writtenFilesStream.close();
         }
+        generatedFiles.addAll(Arrays.asList(StringUtils.split(writtenFiles.toString())));
+        generatedFiles.addAll(sharedModelFiles);
 
         return generatedFiles;
     }
 
     /**
-     * @return a {schema file, schema name} tuple.
+     * Writes everything built so far, then releases it by starting over with a new code model: used
+     * to generate resources one by one with a memory usage bounded by the largest resource.
+     * <p>
+     * Resource interfaces written by a flush can't be modified anymore. Previously generated model
+     * classes are still referenced, by name, without being generated again, and their names stay
+     * reserved so new model classes get different ones.
      */
-    public Entry<File, String> getSchemaFile(final String schemaNameOrContent) throws IOException {
-        if (raml.getConsolidatedSchemas().containsKey(schemaNameOrContent)) {
+    public void flush() throws IOException {
+        releaseModelClassNames();
+        mergedCodeModels.add(0, codeModel);
+
+        synchronized (getOutputDirectoryLock()) {
+            for (final JCodeModel flushedCodeModel : mergedCodeModels) {
+                flushedCodeModel.build(new NonClosingCodeWriter(getCodeWriter()));
+            }
+        }
+
+        for (final JCodeModel flushedCodeModel : mergedCodeModels) {
+            final JPackage modelPackage = flushedCodeModel._package(getModelPackage());
+            for (final Iterator<JDefinedClass> i = modelPackage.classes(); i.hasNext();) {
+                flushedModelClasses.add(i.next().name());
+            }
+        }
+        mergedCodeModels.clear();
+
+        codeModel = new JCodeModel();
+        reserveModelClassNames(flushedModelClasses);
+        // the schema store holds classes of the previous code model
+        schemaStore.rebase(codeModel);
+
+        resourcesMethods.clear();
+        resourcesNestedClasses.clear();
+        responsesMediaTypeConstants.clear();
+        currentResourceInterface = null;
+
+        // custom HTTP method annotations have been written, only reference them
+        for (final Entry<String, JClass> customHttpMethodAnnotation : customHttpMethodAnnotations.entrySet()) {
+            customHttpMethodAnnotation.setValue(codeModel.directClass(customHttpMethodAnnotation.getValue()
+                    .fullName()));
+        }
+    }
+
+    /**
+     * @return a new context, with its own code model, to generate a single resource independently of
+     *         the other ones. Once complete, it must be merged back.
+     */
+    public Context createResourceContext() throws IOException {
+        return new Context(configuration, raml);
+    }
+
+    /**
+     * Adds what a resource context has generated to the files written by this context.
+     */
+    public void merge(final Context resourceContext) {
+        mergedCodeModels.add(resourceContext.codeModel);
+        shouldGenerateResponseWrapper |= resourceContext.shouldGenerateResponseWrapper;
+        shouldGenerateResponseHeaders |= resourceContext.shouldGenerateResponseHeaders;
+        shouldGenerateJsonArrayOutput |= resourceContext.shouldGenerateJsonArrayOutput;
+    }
+
+    /**
+     * @return the unique name a resource interface would get from
+     *         {@link #createResourceInterface(String)}, without creating it.
+     */
+    public String reserveResourceInterfaceName(final String name) {
+        return resourceInterfaceNames.reserve(name);
+    }
+
+    /**
+     * @return a reference, in the current code model, to a type generated or flushed before.
+     */
+    public JClass getExistingType(final String typeName) {
+        try {
+            return codeModel.parseType(typeName).boxify();
+        } catch (final ClassNotFoundException cnfe) {
+            throw new IllegalStateException("Can't reference type: " + typeName, cnfe);
+        }
+    }
+
+    /**
+     * @return a {schema content, schema name} tuple.
+     */
+    public Entry<String, String> getSchema(final String schemaNameOrContent) {
+        final String globalSchema = raml.getConsolidatedSchemas().get(schemaNameOrContent);
+
+        if (globalSchema != null) {
             // schemaNameOrContent is actually a global name
-            return new SimpleEntry<File, String>(new File(globalSchemaStore, schemaNameOrContent),
-                    schemaNameOrContent);
+            return new SimpleEntry<String, String>(globalSchema, schemaNameOrContent);
         } else {
-            // this is not a global reference but a local schema def - dump it to a temp file so
-            // the type generators can pick it up
-            final String schemaFileName = "schema" + schemaNameOrContent.hashCode();
-            final File schemaFile = new File(globalSchemaStore, schemaFileName);
-            FileUtils.writeStringToFile(schemaFile, schemaNameOrContent);
-            return new SimpleEntry<File, String>(schemaFile, null);
+            // this is not a global reference but a local schema def
+            return new SimpleEntry<String, String>(schemaNameOrContent, null);
         }
     }
 
@@ -163,6 +305,10 @@ public class Context {
         return configuration;
     }
 
+    public GenerationMetrics getGenerationMetrics() {
+        return generationMetrics;
+    }
+
     public JDefinedClass getCurrentResourceInterface() {
         return currentResourceInterface;
     }
@@ -171,24 +317,66 @@ public class Context {
         this.currentResourceInterface = currentResourceInterface;
     }
 
-    private String generateResponseWrapper() throws IOException {
-        final String template = IOUtils.toString(getClass().getResourceAsStream(
-                "/org/raml/templates/ResponseWrapper." + configuration.getJaxrsVersion().toString().toLowerCase()
-                + ".template"));
+    private Object getOutputDirectoryLock() throws IOException {
+        if (configuration.getSourceJarWriter() != null) {
+            return configuration.getSourceJarWriter();
+        }
 
-        final File supportPackageOutputDirectory = new File(configuration.getOutputDirectory(),
-                getSupportPackage().replace('.', File.separatorChar));
+        final String outputDirectoryPath = configuration.getOutputDirectory().getCanonicalPath();
+        final Object lock = new Object();
+        final Object existingLock = OUTPUT_DIRECTORY_LOCKS.putIfAbsent(outputDirectoryPath, lock);
+        return existingLock != null ? existingLock : lock;
+    }
 
-        FileUtils.forceMkdir(supportPackageOutputDirectory);
+    private RamlSchemaStore createSchemaStore() {
+        return new RamlSchemaStore(raml.getConsolidatedSchemas());
+    }
 
-        final File sourceOutputFile = new File(supportPackageOutputDirectory, "ResponseWrapper.java");
-        final String source = template.replace("${codegen.support.package}", getSupportPackage());
-        final OutputStreamWriter oswriter = new OutputStreamWriter(new FileOutputStream(sourceOutputFile), "UTF-8");
-        final BufferedWriter fileWriter = new BufferedWriter(oswriter);
-        IOUtils.write(source, fileWriter);
-        IOUtils.closeQuietly(fileWriter);
+    private SchemaMapper createSchemaMapper(final RamlSchemaStore store) {
+        // configure the JSON -> POJO generator
+        final GenerationConfig jsonSchemaGenerationConfig = configuration.createJsonSchemaGenerationConfig();
+        return new SchemaMapper(new RuleFactory(jsonSchemaGenerationConfig,
+                new AnnotatorFactory().getAnnotator(jsonSchemaGenerationConfig.getAnnotationStyle()), store),
+                new SchemaGenerator());
+    }
+
+    private CodeWriter getCodeWriter() throws IOException {
+        if (codeWriter == null) {
+            writtenFiles = new ByteArrayOutputStream();
+            writtenFilesStream = new PrintStream(writtenFiles, false, "UTF-8");
+
+            // reports the path of each written file to the print stream
+            codeWriter = new ProgressCodeWriter(new UniqueFilesCodeWriter(new ReproducibleCodeWriter(
+                    createCodeWriter())), writtenFilesStream);
+        }
+        return codeWriter;
+    }
+
+    private CodeWriter createCodeWriter() throws IOException {
+        if (configuration.getSourceJarWriter() != null) {
+            return new CountingCodeWriter(configuration.getSourceJarWriter().newCodeWriter(), generationMetrics);
+        } else if (configuration.isWriteOnlyChangedFiles()) {
+            // only counts the files that have changed, which are the only ones actually written
+            return new ChangedFilesCodeWriter(configuration.getOutputDirectory(), configuration.getWriterThreads(),
+                    generationMetrics);
+        } else {
+            return new CountingCodeWriter(new FileCodeWriter(configuration.getOutputDirectory()), generationMetrics);
+        }
+    }
+
+    private void generateSupportClass(final CodeWriter codeWriter, final String templateName, final String className)
+            throws IOException {
+        final String template = IOUtils.toString(getClass().getResourceAsStream(
+                "/org/raml/templates/" + templateName + ".template"));
 
-        return getSupportPackage().replace('.', '/') + "/ResponseWrapper.java";
+        final String source = template.replace("${codegen.support.package}", getSupportPackage());
+        final OutputStream sourceOutputStream = codeWriter.openBinary(codeModel._package(getSupportPackage()),
+                className + ".java");
+        try {
+            IOUtils.write(source, sourceOutputStream, "UTF-8");
+        } finally {
+            IOUtils.closeQuietly(sourceOutputStream);
+        }
     }
 
     public JClass getResponseWrapperType() {
@@ -197,35 +385,52 @@ public class Context {
         return codeModel.directClass(getSupportPackage() + ".ResponseWrapper");
     }
 
-    public JDefinedClass createResourceInterface(final String name) throws Exception {
-        String actualName;
-        int i = -1;
-        while (true) {
-            actualName = name + (++i == 0 ? "" : Integer.toString(i));
-            if (!resourcesMethods.containsKey(actualName)) {
-                resourcesMethods.put(actualName, new HashSet<String>());
-                break;
-            }
+    /**
+     * @return the support class adding free-form headers to the responses of lightweight response
+     *         factories, which have no response wrapper to do it.
+     */
+    public JClass getResponseHeadersType() {
+        shouldGenerateResponseHeaders = true;
+
+        return codeModel.directClass(getSupportPackage() + ".ResponseHeaders");
+    }
+
+    /**
+     * @return the support class writing the elements of a JSON array one by one, with the configured
+     *         JSON mapper.
+     */
+    public JClass getJsonArrayOutputType() {
+        shouldGenerateJsonArrayOutput = true;
+
+        return codeModel.directClass(getSupportPackage() + ".JsonArrayOutput");
+    }
+
+    private String getJsonArrayOutputFlavor() {
+        if (configuration.getJsonMapper() == AnnotationStyle.JACKSON1) {
+            return "jackson1";
+        } else if (configuration.getJsonMapper() == AnnotationStyle.GSON) {
+            return "gson";
+        } else {
+            return "jackson2";
         }
+    }
+
+    public JDefinedClass createResourceInterface(final String name) throws Exception {
+        final String actualName = resourceInterfaceNames.reserve(name);
+        resourcesMethods.put(actualName, new NameRegistry());
 
         final JPackage pkg = codeModel._package(configuration.getBasePackageName() + ".resource");
-        return pkg._interface(actualName);
+        final JDefinedClass resourceInterface = pkg._interface(actualName);
+        resourcesNestedClasses.put(resourceInterface, new LinkedHashMap<String, JDefinedClass>());
+        return resourceInterface;
     }
 
     public JMethod createResourceMethod(final JDefinedClass resourceInterface,
             final String methodName,
             final JType returnType) {
-        final Set<String> existingMethodNames = resourcesMethods.get(resourceInterface.name());
-
-        String actualMethodName;
-        int i = -1;
-        while (true) {
-            actualMethodName = methodName + (++i == 0 ? "" : Integer.toString(i));
-            if (!existingMethodNames.contains(actualMethodName)) {
-                existingMethodNames.add(actualMethodName);
-                break;
-            }
-        }
+        final String actualMethodName = resourcesMethods.get(resourceInterface.name()).reserve(methodName);
+
+        generationMetrics.increment(Counter.METHODS);
 
         return resourceInterface.method(JMod.NONE, returnType, actualMethodName);
     }
@@ -233,14 +438,15 @@ public class Context {
     public JDefinedClass createResourceEnum(final JDefinedClass resourceInterface,
             final String name,
             final List<String> values) throws Exception {
-        for (Iterator<JDefinedClass> i = resourceInterface.classes(); i.hasNext();) {
-            JDefinedClass clazz = i.next();
-            if (clazz.name().equals(name)) {
-                return clazz;
-            }
+        final Map<String, JDefinedClass> nestedClasses = resourcesNestedClasses.get(resourceInterface);
+        final JDefinedClass existingClass = nestedClasses.get(name);
+        if (existingClass != null) {
+            return existingClass;
         }
 
         final JDefinedClass resourceEnum = resourceInterface._enum(name);
+        nestedClasses.put(name, resourceEnum);
+        generationMetrics.increment(Counter.ENUMS);
 
         for (final String value : values) {
             resourceEnum.enumConstant(value);
@@ -249,20 +455,67 @@ public class Context {
         return resourceEnum;
     }
 
-    @SuppressWarnings("unchecked")
+    public JDefinedClass createResponseClass(final JDefinedClass resourceInterface, final String name)
+            throws Exception {
+        return createResponseClass(resourceInterface, JMod.PUBLIC, name);
+    }
+
+    public JDefinedClass createResponseClass(final JDefinedClass resourceInterface, final int mods, final String name)
+            throws Exception {
+        final JDefinedClass responseClass = resourceInterface._class(mods, name);
+        resourcesNestedClasses.get(resourceInterface).put(name, responseClass);
+        return responseClass;
+    }
+
+    /**
+     * @return a reference to a MediaType constant for a response media type: the JAX-RS one if it
+     *         exists, otherwise one declared once in the response class.
+     */
+    public JExpression getMediaTypeConstant(final JDefinedClass responseClass, final String mediaType) {
+        final JClass mediaTypeClass = codeModel.ref(MediaType.class);
+
+        final String jaxrsConstantName = JAXRS_MEDIA_TYPE_CONSTANTS.get(mediaType.toLowerCase());
+        if (jaxrsConstantName != null) {
+            return mediaTypeClass.staticRef(jaxrsConstantName);
+        }
+
+        Map<String, JFieldVar> mediaTypeConstants = responsesMediaTypeConstants.get(responseClass);
+        if (mediaTypeConstants == null) {
+            mediaTypeConstants = new LinkedHashMap<String, JFieldVar>();
+            responsesMediaTypeConstants.put(responseClass, mediaTypeConstants);
+        }
+
+        JFieldVar mediaTypeConstant = mediaTypeConstants.get(mediaType);
+        if (mediaTypeConstant == null) {
+            final String baseName = Names.buildMediaTypeConstantName(mediaType);
+            String name = baseName;
+            for (int i = 1; responseClass.fields().containsKey(name); i++) {
+                name = baseName + i;
+            }
+
+            // parsed once, when the response class is loaded
+            mediaTypeConstant = responseClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, mediaTypeClass, name,
+                    mediaTypeClass.staticInvoke("valueOf").arg(mediaType));
+            mediaTypeConstants.put(mediaType, mediaTypeConstant);
+        }
+        return mediaTypeConstant;
+    }
+
     public Context addHttpMethodAnnotation(final String httpMethod, final JAnnotatable annotatable)
             throws Exception {
-        final Object annotationClass = httpMethodAnnotations.get(httpMethod.toUpperCase());
-        if (annotationClass == null) {
-            final JDefinedClass annotationClazz = createCustomHttpMethodAnnotation(httpMethod);
-            annotatable.annotate(annotationClazz);
-        } else if (annotationClass instanceof JClass) {
-            annotatable.annotate((JClass) annotationClass);
-        } else if (annotationClass instanceof Class) {
-            annotatable.annotate((Class<? extends Annotation>) annotationClass);
+        final String httpMethodName = httpMethod.toUpperCase();
+
+        final Class<? extends Annotation> annotationClass = JAXRS_HTTP_METHOD_ANNOTATIONS.get(httpMethodName);
+        if (annotationClass != null) {
+            annotatable.annotate(annotationClass);
+            return this;
+        }
+
+        final JClass customAnnotationClass = customHttpMethodAnnotations.get(httpMethodName);
+        if (customAnnotationClass != null) {
+            annotatable.annotate(customAnnotationClass);
         } else {
-            throw new IllegalStateException("Found annotation: " + annotationClass + " for HTTP method: "
-                    + httpMethod);
+            annotatable.annotate(createCustomHttpMethodAnnotation(httpMethod));
         }
 
         return this;
@@ -275,18 +528,335 @@ public class Context {
     public JClass generateClassFromJsonSchema(final String className, final URL schemaUrl) throws IOException {
         // TODO return actually generated type when
         // https://github.com/joelittlejohn/jsonschema2pojo/issues/137 will be fixed
+        generationMetrics.increment(Counter.SCHEMAS_GENERATED);
         return schemaMapper.generate(codeModel, className, getModelPackage(), schemaUrl).boxify();
     }
 
-    public JClass generateClassFromJsonSchema(final String className, final String jsonSchema,
-            final File schemaLocation) throws IOException {
+    public JClass generateClassFromJsonSchema(final String className, final String jsonSchema)
+            throws IOException {
+        final SharedModelRegistry sharedModelRegistry = configuration.getSharedModelRegistry();
+        if (sharedModelRegistry == null) {
+            return generateModelClass(className, jsonSchema);
+        }
+
+        final String schemaKey = sharedModelRegistry.buildSchemaKey(jsonSchema, schemaLocation);
+        final String sharedTypeName = sharedModelRegistry.getTypeName(schemaKey);
+        if (sharedTypeName != null) {
+            // already generated by a previous resource or RAML file
+            generationMetrics.increment(Counter.SCHEMAS_REUSED);
+            return getSharedType(schemaKey, sharedTypeName);
+        }
+
+        return generateSharedModelClass(schemaKey, sharedModelRegistry.reserveClassName(schemaKey, className),
+                jsonSchema);
+    }
+
+    /**
+     * Generates classes from several JSON schemas concurrently, each one in its own code model with
+     * its own schema mapper, then merges them in order. The result is the same as calling
+     * {@link #generateClassFromJsonSchema(String, String)} for each schema, in order.
+     * <p>
+     * Schemas generating classes whose names collide, with the classes of another schema or with
+     * classes generated before, would get other names, or reuse classes, in a single code model: they
+     * are generated again, in order, in the code model of this context.
+     * 
+     * @return the generated classes, in the order of the schemas.
+     */
+    public List<JClass> generateClassesFromJsonSchemas(final List<String> classNames,
+            final List<String> jsonSchemas,
+            final int threads) throws IOException {
+        final int schemaCount = classNames.size();
+        final JClass[] classes = new JClass[schemaCount];
+        final String[] sharedSchemaKeys = new String[schemaCount];
+        final Map<Integer, String> generatedClassNames = new LinkedHashMap<Integer, String>();
+
+        // the shared model registry depends on the generation order: query it serially
+        final SharedModelRegistry sharedModelRegistry = configuration.getSharedModelRegistry();
+        final Set<String> reservedSchemaKeys = new HashSet<String>();
+        // names of the model classes generated before, which the schemas of this batch mustn't collide with
+        final Set<String> takenClassNames = new HashSet<String>();
+        if (sharedModelRegistry != null) {
+            for (final String className : sharedModelRegistry.getClassNames()) {
+                takenClassNames.add(getBaseClassName(className));
+            }
+        }
+        for (final String className : getModelClassNames(codeModel)) {
+            takenClassNames.add(getBaseClassName(className));
+        }
+
+        for (int i = 0; i < schemaCount; i++) {
+            String className = classNames.get(i);
+
+            if (sharedModelRegistry != null) {
+                sharedSchemaKeys[i] = sharedModelRegistry.buildSchemaKey(jsonSchemas.get(i), schemaLocation);
+                final String sharedTypeName = sharedModelRegistry.getTypeName(sharedSchemaKeys[i]);
+                if (sharedTypeName != null) {
+                    generationMetrics.increment(Counter.SCHEMAS_REUSED);
+                    classes[i] = getSharedType(sharedSchemaKeys[i], sharedTypeName);
+                    continue;
+                } else if (!reservedSchemaKeys.add(sharedSchemaKeys[i])) {
+                    // generated by a previous schema of this batch
+                    continue;
+                }
+                className = sharedModelRegistry.reserveClassName(sharedSchemaKeys[i], className);
+            }
+
+            generatedClassNames.put(i, className);
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1,
+                Math.min(threads, generatedClassNames.size())));
+        try {
+            final Map<Integer, Future<Entry<JCodeModel, JClass>>> generations =
+                    new LinkedHashMap<Integer, Future<Entry<JCodeModel, JClass>>>();
+            for (final Entry<Integer, String> generatedClassName : generatedClassNames.entrySet()) {
+                final String className = generatedClassName.getValue();
+                final String jsonSchema = jsonSchemas.get(generatedClassName.getKey());
+
+                generations.put(generatedClassName.getKey(),
+                        executorService.submit(new Callable<Entry<JCodeModel, JClass>>() {
+                            @Override
+                            public Entry<JCodeModel, JClass> call() throws Exception {
+                                final JCodeModel schemaCodeModel = new JCodeModel();
+                                final SchemaMapper schemaCodeModelMapper = createSchemaMapper(createSchemaStore());
+                                final JClass generatedClass = generateModelClass(schemaCodeModelMapper,
+                                        schemaCodeModel, className, jsonSchema);
+                                return new SimpleEntry<JCodeModel, JClass>(schemaCodeModel, generatedClass);
+                            }
+                        }));
+            }
+
+            final Map<Integer, Entry<JCodeModel, JClass>> generatedClasses =
+                    new LinkedHashMap<Integer, Entry<JCodeModel, JClass>>();
+            final Map<String, Integer> classNameCounts = new HashMap<String, Integer>();
+            for (final Entry<Integer, Future<Entry<JCodeModel, JClass>>> generation : generations.entrySet()) {
+                final Entry<JCodeModel, JClass> generatedClass = getGeneratedClass(generation.getValue());
+                generatedClasses.put(generation.getKey(), generatedClass);
+
+                for (final String className : getModelClassNames(generatedClass.getKey())) {
+                    final Integer count = classNameCounts.get(getBaseClassName(className));
+                    classNameCounts.put(getBaseClassName(className), count == null ? 1 : count + 1);
+                }
+            }
+
+            for (final Entry<Integer, Entry<JCodeModel, JClass>> generatedClass : generatedClasses.entrySet()) {
+                final int i = generatedClass.getKey();
+                final JCodeModel schemaCodeModel = generatedClass.getValue().getKey();
+                final Set<String> schemaClassNames = getModelClassNames(schemaCodeModel);
+
+                if (!isColliding(schemaClassNames, classNameCounts, takenClassNames)) {
+                    generationMetrics.increment(Counter.SCHEMAS_GENERATED);
+                    mergedCodeModels.add(schemaCodeModel);
+                    // later schemas generated in this context must not take the names of the merged classes
+                    reserveModelClassNames(schemaClassNames);
+                    classes[i] = getExistingType(generatedClass.getValue().getValue().fullName());
+
+                    if (sharedModelRegistry != null) {
+                        sharedModelRegistry.register(sharedSchemaKeys[i], classes[i].fullName(),
+                                getUsedModelClassNames(generatedClass.getValue().getValue()));
+                    }
+                } else if (sharedModelRegistry != null) {
+                    classes[i] = generateSharedModelClass(sharedSchemaKeys[i], generatedClassNames.get(i),
+                            jsonSchemas.get(i));
+                } else {
+                    classes[i] = generateModelClass(generatedClassNames.get(i), jsonSchemas.get(i));
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        for (int i = 0; i < schemaCount; i++) {
+            if (classes[i] == null) {
+                classes[i] = getSharedType(sharedSchemaKeys[i],
+                        sharedModelRegistry.getTypeName(sharedSchemaKeys[i]));
+            }
+        }
+
+        return Arrays.asList(classes);
+    }
+
+    private Set<String> getModelClassNames(final JCodeModel model) {
+        final Set<String> modelClassNames = new HashSet<String>();
+        for (final Iterator<JDefinedClass> i = model._package(getModelPackage()).classes(); i.hasNext();) {
+            modelClassNames.add(i.next().name());
+        }
+        return modelClassNames;
+    }
+
+    private static boolean isColliding(final Set<String> classNames,
+            final Map<String, Integer> classNameCounts,
+            final Set<String> takenClassNames) {
+        for (final String className : classNames) {
+            final String baseClassName = getBaseClassName(className);
+            if (classNameCounts.get(baseClassName) > 1 || takenClassNames.contains(baseClassName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the name of a class without the suffix jsonschema2pojo adds to make it unique, so the
+     *         names it could have taken in a single code model collide too.
+     */
+    private static String getBaseClassName(final String className) {
+        return StringUtils.stripEnd(className, "_");
+    }
+
+    private static Entry<JCodeModel, JClass> getGeneratedClass(final Future<Entry<JCodeModel, JClass>> generation)
+            throws IOException {
+        try {
+            return generation.get();
+        } catch (final ExecutionException ee) {
+            if (ee.getCause() instanceof IOException) {
+                throw (IOException) ee.getCause();
+            } else if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new IOException(ee.getCause());
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating classes from JSON schemas", ie);
+        }
+    }
+
+    private JClass generateModelClass(final String className, final String jsonSchema) throws IOException {
+        generationMetrics.increment(Counter.SCHEMAS_GENERATED);
+
+        return generateModelClass(schemaMapper, codeModel, className, jsonSchema);
+    }
+
+    private JClass generateModelClass(final SchemaMapper mapper,
+            final JCodeModel model,
+            final String className,
+            final String jsonSchema) throws IOException {
         if (schemaLocation == null) {
-            schemaMapper.generate(codeModel, className, getModelPackage(), jsonSchema).boxify();
+            return mapper.generate(model, className, getModelPackage(), jsonSchema).boxify();
+        }
+
+        return mapper.generate(model, className, getModelPackage(), jsonSchema, schemaLocation).boxify();
+    }
+
+    /**
+     * Generates the class of a schema into the common model package, where it mustn't take the names
+     * of the classes generated for other schemas, by this context or by other ones.
+     */
+    private JClass generateSharedModelClass(final String schemaKey, final String className, final String jsonSchema)
+            throws IOException {
+        final SharedModelRegistry sharedModelRegistry = configuration.getSharedModelRegistry();
+
+        final Set<String> reservedClassNames = sharedModelRegistry.getClassNames();
+        reservedClassNames.remove(className);
+        releaseModelClassName(className);
+        reserveModelClassNames(reservedClassNames);
+
+        final JClass generatedClass = generateModelClass(className, jsonSchema);
+        sharedModelRegistry.register(schemaKey, generatedClass.fullName(), getUsedModelClassNames(generatedClass));
+        return generatedClass;
+    }
+
+    private JClass getSharedType(final String schemaKey, final String typeName) {
+        // report shared classes as generated by all the RAML files using them, so they are kept
+        // as long as one of these RAML files is
+        final String modelPackagePath = getModelPackage().replace('.', File.separatorChar);
+        for (final String className : configuration.getSharedModelRegistry().getClassNames(schemaKey)) {
+            sharedModelFiles.add(modelPackagePath + File.separatorChar + className + ".java");
         }
-        
-        URI schemaLocationURI = schemaLocation.toURI();
-        return schemaMapper.generate(codeModel, className, getModelPackage(), jsonSchema, schemaLocationURI).boxify();
 
+        return getExistingType(typeName);
+    }
+
+    /**
+     * @return the names of the top-level classes of the model package a generated type depends on,
+     *         including the ones it is generated in.
+     */
+    private Set<String> getUsedModelClassNames(final JClass type) {
+        final Set<String> classNames = new HashSet<String>();
+        collectUsedModelClassNames(type, new HashSet<JClass>(), classNames);
+        return classNames;
+    }
+
+    private void collectUsedModelClassNames(final JClass type, final Set<JClass> visitedTypes,
+            final Set<String> classNames) {
+        if (!visitedTypes.add(type)) {
+            return;
+        }
+
+        for (final JClass typeParameter : type.getTypeParameters()) {
+            collectUsedModelClassNames(typeParameter, visitedTypes, classNames);
+        }
+        if (type.erasure() != type) {
+            collectUsedModelClassNames(type.erasure(), visitedTypes, classNames);
+            return;
+        }
+        if (type._package() == null || !getModelPackage().equals(type._package().name())) {
+            return;
+        }
+
+        JClass topLevelType = type;
+        while (topLevelType.outer() != null) {
+            topLevelType = topLevelType.outer();
+        }
+        classNames.add(topLevelType.name());
+
+        if (!(type instanceof JDefinedClass) || reservedModelClasses.containsValue(topLevelType)) {
+            // generated before, by this context or by another one
+            final String schemaKey = configuration.getSharedModelRegistry().getSchemaKey(topLevelType.name());
+            if (schemaKey != null) {
+                classNames.addAll(configuration.getSharedModelRegistry().getClassNames(schemaKey));
+            }
+            return;
+        }
+
+        final JDefinedClass definedType = (JDefinedClass) type;
+        if (definedType._extends() != null) {
+            collectUsedModelClassNames(definedType._extends(), visitedTypes, classNames);
+        }
+        for (final JFieldVar field : definedType.fields().values()) {
+            if (field.type() instanceof JClass) {
+                collectUsedModelClassNames((JClass) field.type(), visitedTypes, classNames);
+            }
+        }
+        for (final Iterator<JDefinedClass> i = definedType.classes(); i.hasNext();) {
+            collectUsedModelClassNames(i.next(), visitedTypes, classNames);
+        }
+        collectUsedModelClassNames(topLevelType, visitedTypes, classNames);
+    }
+
+    /**
+     * Declares placeholder classes in the model package of the current code model, so jsonschema2pojo
+     * gives other names to the classes it generates, as it does for the classes it has already
+     * generated itself. They must be released before the code model is built.
+     */
+    private void reserveModelClassNames(final Collection<String> classNames) {
+        final JPackage modelPackage = codeModel._package(getModelPackage());
+        for (final String className : classNames) {
+            if (modelPackage._getClass(className) != null) {
+                continue;
+            }
+
+            try {
+                reservedModelClasses.put(className, modelPackage._class(className));
+            } catch (final JClassAlreadyExistsException jcaee) {
+                // a class whose name only differs by case already reserves it
+            }
+        }
+    }
+
+    private void releaseModelClassName(final String className) {
+        final JDefinedClass reservedModelClass = reservedModelClasses.remove(className);
+        if (reservedModelClass != null) {
+            codeModel._package(getModelPackage()).remove(reservedModelClass);
+        }
+    }
+
+    private void releaseModelClassNames() {
+        final JPackage modelPackage = codeModel._package(getModelPackage());
+        for (final JDefinedClass reservedModelClass : reservedModelClasses.values()) {
+            modelPackage.remove(reservedModelClass);
+        }
+        reservedModelClasses.clear();
     }
 
     private JDefinedClass createCustomHttpMethodAnnotation(final String httpMethod)
@@ -297,15 +867,149 @@ public class Context {
         annotationClazz.annotate(Retention.class).param("value", RetentionPolicy.RUNTIME);
         annotationClazz.annotate(HttpMethod.class).param("value", httpMethod);
         annotationClazz.javadoc().add("Custom JAX-RS support for HTTP " + httpMethod + ".");
-        httpMethodAnnotations.put(httpMethod.toUpperCase(), annotationClazz);
+        customHttpMethodAnnotations.put(httpMethod.toUpperCase(), annotationClazz);
         return annotationClazz;
     }
 
     private String getModelPackage() {
-        return configuration.getBasePackageName() + ".model";
+        final SharedModelRegistry sharedModelRegistry = configuration.getSharedModelRegistry();
+        return sharedModelRegistry != null
+                ? sharedModelRegistry.getModelPackageName()
+                : configuration.getBasePackageName() + ".model";
     }
 
     private String getSupportPackage() {
         return configuration.getBasePackageName() + ".support";
     }
+
+    /**
+     * Counts the files and bytes written through a code writer.
+     */
+    private static class CountingCodeWriter extends CodeWriter {
+
+        private final CodeWriter codeWriter;
+        private final GenerationMetrics generationMetrics;
+
+        CountingCodeWriter(final CodeWriter codeWriter, final GenerationMetrics generationMetrics) {
+            this.codeWriter = codeWriter;
+            this.generationMetrics = generationMetrics;
+        }
+
+        @Override
+        public OutputStream openBinary(final JPackage pkg, final String fileName) throws IOException {
+            generationMetrics.increment(Counter.FILES_WRITTEN);
+
+            return new FilterOutputStream(codeWriter.openBinary(pkg, fileName)) {
+                @Override
+                public void write(final int b) throws IOException {
+                    out.write(b);
+                    generationMetrics.increment(Counter.BYTES_WRITTEN);
+                }
+
+                @Override
+                public void write(final byte[] b, final int off, final int len) throws IOException {
+                    out.write(b, off, len);
+                    generationMetrics.add(Counter.BYTES_WRITTEN, len);
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            codeWriter.close();
+        }
+    }
+
+    /**
+     * Renders sources the same way on any JVM, whatever its default encoding and line separator: in
+     * UTF-8 and with \n line separators.
+     */
+    private static class ReproducibleCodeWriter extends CodeWriter {
+
+        private final CodeWriter codeWriter;
+
+        ReproducibleCodeWriter(final CodeWriter codeWriter) {
+            this.codeWriter = codeWriter;
+            encoding = "UTF-8";
+        }
+
+        @Override
+        public OutputStream openBinary(final JPackage pkg, final String fileName) throws IOException {
+            return codeWriter.openBinary(pkg, fileName);
+        }
+
+        @Override
+        public Writer openSource(final JPackage pkg, final String fileName) throws IOException {
+            return new FilterWriter(super.openSource(pkg, fileName)) {
+                @Override
+                public void write(final int c) throws IOException {
+                    if (c != '\r') {
+                        out.write(c);
+                    }
+                }
+
+                @Override
+                public void write(final char[] cbuf, final int off, final int len) throws IOException {
+                    for (int i = off; i < off + len; i++) {
+                        write(cbuf[i]);
+                    }
+                }
+
+                @Override
+                public void write(final String str, final int off, final int len) throws IOException {
+                    for (int i = off; i < off + len; i++) {
+                        write(str.charAt(i));
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            codeWriter.close();
+        }
+    }
+
+    /**
+     * Keeps the underlying code writer open when a code model is built, so several code models can be
+     * written through it.
+     */
+    private static class NonClosingCodeWriter extends FilterCodeWriter {
+
+        NonClosingCodeWriter(final CodeWriter codeWriter) {
+            super(codeWriter);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // closed when the generation is complete
+        }
+    }
+
+    /**
+     * Only writes the first of several files with the same path, which several code models (merged
+     * resources or flushed ones) can generate with the same content.
+     */
+    private static class UniqueFilesCodeWriter extends FilterCodeWriter {
+
+        private final Set<String> writtenPaths = new HashSet<String>();
+
+        UniqueFilesCodeWriter(final CodeWriter codeWriter) {
+            super(codeWriter);
+        }
+
+        @Override
+        public OutputStream openBinary(final JPackage pkg, final String fileName) throws IOException {
+            return isFirst(pkg, fileName) ? super.openBinary(pkg, fileName) : new NullOutputStream();
+        }
+
+        @Override
+        public Writer openSource(final JPackage pkg, final String fileName) throws IOException {
+            return isFirst(pkg, fileName) ? super.openSource(pkg, fileName) : new NullWriter();
+        }
+
+        private boolean isFirst(final JPackage pkg, final String fileName) {
+            return writtenPaths.add(pkg.name() + '/' + fileName);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects the files created, modified or deleted in a set of watched files and directories, by
+ * comparing their timestamps and sizes between polls.
+ * @author JAshe
+ */
+public class FileWatcher {
+
+    private final Set<File> roots;
+    private final Map<File, FileState> fileStates;
+
+    public FileWatcher() {
+        roots = new HashSet<File>();
+        fileStates = new HashMap<File, FileState>();
+    }
+
+    /**
+     * Changes the watched files and directories: files that weren't watched so far start being
+     * watched from their current state, so they aren't reported as changed.
+     */
+    public void setRoots(final Collection<File> newRoots) {
+        roots.clear();
+        for (final File root : newRoots) {
+            roots.add(root.getAbsoluteFile());
+        }
+
+        final Map<File, FileState> currentStates = scan();
+        fileStates.keySet().retainAll(currentStates.keySet());
+        for (final Map.Entry<File, FileState> currentState : currentStates.entrySet()) {
+            if (!fileStates.containsKey(currentState.getKey())) {
+                fileStates.put(currentState.getKey(), currentState.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return the files created, modified or deleted since the previous poll.
+     */
+    public Set<File> poll() {
+        final Map<File, FileState> currentStates = scan();
+        final Set<File> changedFiles = new HashSet<File>();
+
+        for (final Iterator<Map.Entry<File, FileState>> i = fileStates.entrySet().iterator(); i.hasNext();) {
+            final Map.Entry<File, FileState> fileState = i.next();
+            if (!currentStates.containsKey(fileState.getKey())) {
+                changedFiles.add(fileState.getKey());
+                i.remove();
+            }
+        }
+
+        for (final Map.Entry<File, FileState> currentState : currentStates.entrySet()) {
+            final FileState previousState = fileStates.put(currentState.getKey(), currentState.getValue());
+            if (!currentState.getValue().equals(previousState)) {
+                changedFiles.add(currentState.getKey());
+            }
+        }
+
+        return changedFiles;
+    }
+
+    private Map<File, FileState> scan() {
+        final Map<File, FileState> states = new HashMap<File, FileState>();
+        for (final File root : roots) {
+            scan(root, states);
+        }
+        return states;
+    }
+
+    private static void scan(final File file, final Map<File, FileState> states) {
+        if (file.isDirectory()) {
+            final File[] children = file.listFiles();
+            if (children != null) {
+                for (final File child : children) {
+                    scan(child, states);
+                }
+            }
+        } else if (file.isFile()) {
+            states.put(file, new FileState(file.lastModified(), file.length()));
+        }
+    }
+
+    private static class FileState {
+
+        private final long lastModified;
+        private final long length;
+
+        FileState(final long lastModified, final long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof FileState)) {
+                return false;
+            }
+            final FileState otherState = (FileState) other;
+            return lastModified == otherState.lastModified && length == otherState.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (lastModified ^ (lastModified >>> 32)) * 31 + (int) length;
+        }
+    }
+}
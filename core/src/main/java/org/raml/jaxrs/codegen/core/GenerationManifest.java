@@ -0,0 +1,240 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track, in an output directory, of the fingerprint of the inputs of each RAML file and of the
+ * files generated from it, so unchanged RAML files can be skipped and stale generated files removed.
+ * @author JAshe
+ */
+public class GenerationManifest {
+
+    public static final String FILE_NAME = ".raml-jaxrs-codegen.manifest";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationManifest.class);
+
+    private static final String FINGERPRINT_PREFIX = "fingerprint=";
+    private static final String INPUT_PREFIX = "input=";
+    private static final String OUTPUT_PREFIX = "output=";
+
+    /**
+     * The recorded state of a single RAML file
+     */
+    public static class Entry {
+
+        private final String fingerprint;
+        private final Set<String> inputs;
+        private final Set<String> outputs;
+
+        public Entry(final String fingerprint, final Collection<String> inputs, final Collection<String> outputs) {
+            this.fingerprint = fingerprint;
+            this.inputs = Collections.unmodifiableSet(new LinkedHashSet<String>(inputs));
+            this.outputs = Collections.unmodifiableSet(new TreeSet<String>(outputs));
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public Set<String> getInputs() {
+            return inputs;
+        }
+
+        public Set<String> getOutputs() {
+            return outputs;
+        }
+    }
+
+    private final File outputDirectory;
+    private final String fileName;
+    private final Map<String, Entry> entries;
+    private final Set<String> staleOutputs;
+
+    private GenerationManifest(final File outputDirectory, final String fileName) {
+        this.outputDirectory = outputDirectory;
+        this.fileName = fileName;
+
+        entries = new TreeMap<String, Entry>();
+        staleOutputs = new HashSet<String>();
+    }
+
+    public static GenerationManifest load(final File outputDirectory) throws IOException {
+        return load(outputDirectory, null);
+    }
+
+    /**
+     * Loads a named manifest: generations sharing an output directory must each use their own, so
+     * none of them deletes the files generated by the other ones.
+     * @param name the name of the manifest, or null for the default one.
+     */
+    public static GenerationManifest load(final File outputDirectory, final String name) throws IOException {
+        Validate.notNull(outputDirectory, "outputDirectory can't be null");
+
+        final GenerationManifest manifest = new GenerationManifest(outputDirectory,
+                StringUtils.isBlank(name) ? FILE_NAME : getFileName(name));
+
+        final File manifestFile = manifest.getManifestFile();
+        if (!manifestFile.isFile()) {
+            return manifest;
+        }
+
+        String ramlFile = null;
+        String fingerprint = null;
+        List<String> inputs = null;
+        List<String> outputs = null;
+
+        for (final String line : FileUtils.readLines(manifestFile, "UTF-8")) {
+            if (line.startsWith("[") && line.endsWith("]")) {
+                if (ramlFile != null) {
+                    manifest.entries.put(ramlFile, new Entry(fingerprint, inputs, outputs));
+                }
+                ramlFile = line.substring(1, line.length() - 1);
+                fingerprint = null;
+                inputs = new ArrayList<String>();
+                outputs = new ArrayList<String>();
+            } else if (ramlFile == null) {
+                continue;
+            } else if (line.startsWith(FINGERPRINT_PREFIX)) {
+                fingerprint = StringUtils.substringAfter(line, FINGERPRINT_PREFIX);
+            } else if (line.startsWith(INPUT_PREFIX)) {
+                inputs.add(StringUtils.substringAfter(line, INPUT_PREFIX));
+            } else if (line.startsWith(OUTPUT_PREFIX)) {
+                outputs.add(StringUtils.substringAfter(line, OUTPUT_PREFIX));
+            }
+        }
+
+        if (ramlFile != null) {
+            manifest.entries.put(ramlFile, new Entry(fingerprint, inputs, outputs));
+        }
+
+        return manifest;
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public synchronized Entry getEntry(final String ramlFile) {
+        return entries.get(ramlFile);
+    }
+
+    /**
+     * Records the new state of a RAML file: previously generated files that are not generated anymore
+     * will be deleted when the manifest is saved, unless another RAML file still generates them.
+     */
+    public synchronized void update(final String ramlFile, final Entry entry) {
+        final Entry previousEntry = entries.put(ramlFile, entry);
+
+        if (previousEntry != null) {
+            staleOutputs.addAll(previousEntry.getOutputs());
+        }
+    }
+
+    /**
+     * Forces the regeneration of a RAML file on next run, while still tracking its outputs.
+     */
+    public synchronized void invalidate(final String ramlFile) {
+        final Entry entry = entries.get(ramlFile);
+
+        if (entry != null) {
+            entries.put(ramlFile, new Entry(null, entry.getInputs(), entry.getOutputs()));
+        }
+    }
+
+    /**
+     * Forgets all the RAML files that are not part of the provided ones, scheduling their outputs for
+     * deletion.
+     */
+    public synchronized void retain(final Collection<String> ramlFiles) {
+        for (final String ramlFile : new ArrayList<String>(entries.keySet())) {
+            if (!ramlFiles.contains(ramlFile)) {
+                staleOutputs.addAll(entries.remove(ramlFile).getOutputs());
+            }
+        }
+    }
+
+    /**
+     * @return all the files generated by the tracked RAML files.
+     */
+    public synchronized Set<String> getOutputs() {
+        final Set<String> outputs = new HashSet<String>();
+        for (final Entry entry : entries.values()) {
+            outputs.addAll(entry.getOutputs());
+        }
+        return outputs;
+    }
+
+    /**
+     * Deletes stale generated files and writes the manifest to the output directory.
+     */
+    public synchronized void save() throws IOException {
+        staleOutputs.removeAll(getOutputs());
+
+        for (final String staleOutput : staleOutputs) {
+            final File staleFile = new File(outputDirectory, staleOutput);
+            if (staleFile.isFile() && !staleFile.delete()) {
+                LOGGER.warn("Failed to delete stale generated file: " + staleFile);
+            }
+        }
+        staleOutputs.clear();
+
+        final List<String> lines = new ArrayList<String>();
+        for (final Map.Entry<String, Entry> ramlFileAndEntry : entries.entrySet()) {
+            final Entry entry = ramlFileAndEntry.getValue();
+
+            lines.add("[" + ramlFileAndEntry.getKey() + "]");
+            lines.add(FINGERPRINT_PREFIX + StringUtils.defaultString(entry.getFingerprint()));
+            for (final String input : entry.getInputs()) {
+                lines.add(INPUT_PREFIX + input);
+            }
+            for (final String output : entry.getOutputs()) {
+                lines.add(OUTPUT_PREFIX + output);
+            }
+        }
+
+        FileUtils.writeLines(getManifestFile(), "UTF-8", lines, "\n");
+    }
+
+    /**
+     * @return the file name of a named manifest.
+     */
+    private static String getFileName(final String name) {
+        return StringUtils.removeEnd(FILE_NAME, ".manifest") + "-" + name + ".manifest";
+    }
+
+    private File getManifestFile() {
+        return new File(outputDirectory, fileName);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.io.FileUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Records the time spent in each generation phase and counts what is generated. A single instance
+ * can be shared by several, possibly concurrent, generations: it then reports their totals.
+ * @author JAshe
+ */
+public class GenerationMetrics {
+
+    /**
+     * The timed generation phases
+     */
+    public enum Phase {
+        VALIDATION, PARSING, RESOURCES, SCHEMAS, WRITING;
+
+        String getKey() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * The counted generation items
+     */
+    public enum Counter {
+        RAML_FILES, CACHED_RAML_MODELS, RESOURCES, METHODS, RESPONSE_CLASSES, ENUMS, SCHEMAS_GENERATED,
+        SCHEMAS_REUSED, FILES_WRITTEN, BYTES_WRITTEN;
+
+        String getKey() {
+            final StringBuilder key = new StringBuilder();
+            for (final String word : name().toLowerCase().split("_")) {
+                key.append(key.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+            }
+            return key.toString();
+        }
+    }
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray counts = new AtomicLongArray(Counter.values().length);
+    private final AtomicLong peakHeapUsage = new AtomicLong();
+
+    /**
+     * @return the start time of a phase, to pass to {@link #stop(Phase, long)}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time spent in a phase, and samples the heap usage.
+     * <p>
+     * Schemas are converted while building resources, so the time spent in the
+     * {@link Phase#SCHEMAS} phase is also part of the time spent in the {@link Phase#RESOURCES} one.
+     */
+    public void stop(final Phase phase, final long start) {
+        phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - start);
+        sampleHeapUsage();
+    }
+
+    public void increment(final Counter counter) {
+        add(counter, 1);
+    }
+
+    public void add(final Counter counter, final long delta) {
+        counts.addAndGet(counter.ordinal(), delta);
+    }
+
+    public long getTimeMillis(final Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseNanos.get(phase.ordinal()));
+    }
+
+    public long getCount(final Counter counter) {
+        return counts.get(counter.ordinal());
+    }
+
+    /**
+     * @return the highest used heap memory, in bytes, sampled at the end of each phase.
+     */
+    public long getPeakHeapUsage() {
+        return peakHeapUsage.get();
+    }
+
+    /**
+     * @return all the metrics, as a JSON object.
+     */
+    public String toJson() throws IOException {
+        final Map<String, Object> phases = new LinkedHashMap<String, Object>();
+        for (final Phase phase : Phase.values()) {
+            phases.put(phase.getKey(), getTimeMillis(phase));
+        }
+
+        final Map<String, Object> counters = new LinkedHashMap<String, Object>();
+        for (final Counter counter : Counter.values()) {
+            counters.put(counter.getKey(), getCount(counter));
+        }
+
+        final Map<String, Object> metrics = new LinkedHashMap<String, Object>();
+        metrics.put("phasesMillis", phases);
+        metrics.put("counters", counters);
+        metrics.put("peakHeapUsageBytes", getPeakHeapUsage());
+
+        return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(metrics);
+    }
+
+    public void write(final File metricsFile) throws IOException {
+        FileUtils.writeStringToFile(metricsFile, toJson(), "UTF-8");
+    }
+
+    /**
+     * @return a one line human readable summary of the metrics.
+     */
+    public String toSummary() {
+        final StringBuilder summary = new StringBuilder();
+        for (final Phase phase : Phase.values()) {
+            summary.append(phase.getKey()).append('=').append(getTimeMillis(phase)).append("ms ");
+        }
+        for (final Counter counter : Counter.values()) {
+            summary.append(counter.getKey()).append('=').append(getCount(counter)).append(' ');
+        }
+        return summary.append("peakHeapUsage=").append(getPeakHeapUsage() / (1024 * 1024)).append("MB").toString();
+    }
+
+    private void sampleHeapUsage() {
+        final Runtime runtime = Runtime.getRuntime();
+        final long heapUsage = runtime.totalMemory() - runtime.freeMemory();
+
+        long peak = peakHeapUsage.get();
+        while (heapUsage > peak && !peakHeapUsage.compareAndSet(peak, heapUsage)) {
+            peak = peakHeapUsage.get();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches RAML files, the resources they include and their schemas, and regenerates the RAML files
+ * affected by each change, with the same warm generator. The RAML files created in watched
+ * directories are generated and watched too.
+ * <p>
+ * Regenerations are incremental: unchanged RAML files are skipped, only the generated files whose
+ * content changed are written and the files that aren't generated anymore are deleted.
+ * @author JAshe
+ */
+public class GenerationWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationWatcher.class);
+
+    private static final String[] RAML_FILE_EXTENSIONS = {"raml", "yaml"};
+
+    /**
+     * Creates the configuration of the RAML files found in a watched directory.
+     */
+    public interface ConfigurationFactory {
+
+        Configuration createConfiguration(File ramlFile);
+    }
+
+    private final IncrementalGenerator incrementalGenerator;
+    private final GenerationManifest manifest;
+    private final Map<File, Configuration> ramlFiles;
+    private final Map<File, ConfigurationFactory> ramlDirectories;
+    private final FileWatcher fileWatcher;
+
+    private volatile boolean stopped;
+
+    public GenerationWatcher(final Generator generator, final GenerationManifest manifest) {
+        Validate.notNull(manifest, "manifest can't be null");
+
+        this.manifest = manifest;
+
+        incrementalGenerator = new IncrementalGenerator(generator, manifest);
+        ramlFiles = new LinkedHashMap<File, Configuration>();
+        ramlDirectories = new LinkedHashMap<File, ConfigurationFactory>();
+        fileWatcher = new FileWatcher();
+    }
+
+    /**
+     * Adds a RAML file to watch and generate, with its own configuration.
+     */
+    public void addRamlFile(final File ramlFile, final Configuration configuration) {
+        Validate.notNull(ramlFile, "ramlFile can't be null");
+        Validate.notNull(configuration, "configuration can't be null");
+
+        final Configuration ramlFileConfiguration = new Configuration(configuration);
+        // only rewrite what changed, so compilers and IDEs only pick up actual changes
+        ramlFileConfiguration.setWriteOnlyChangedFiles(true);
+        ramlFiles.put(ramlFile.getAbsoluteFile(), ramlFileConfiguration);
+    }
+
+    /**
+     * Adds a directory whose RAML files, in and below it, are watched and generated, including the
+     * ones created after this call.
+     */
+    public void addRamlDirectory(final File ramlDirectory, final ConfigurationFactory configurationFactory) {
+        Validate.notNull(ramlDirectory, "ramlDirectory can't be null");
+        Validate.notNull(configurationFactory, "configurationFactory can't be null");
+
+        ramlDirectories.put(ramlDirectory.getAbsoluteFile(), configurationFactory);
+
+        // in a stable order, which the names of shared model classes depend on
+        final List<File> foundRamlFiles = new ArrayList<File>(FileUtils.listFiles(ramlDirectory,
+                RAML_FILE_EXTENSIONS, true));
+        Collections.sort(foundRamlFiles);
+        for (final File ramlFile : foundRamlFiles) {
+            if (!ramlFiles.containsKey(ramlFile.getAbsoluteFile())) {
+                addRamlFile(ramlFile, configurationFactory.createConfiguration(ramlFile));
+            }
+        }
+    }
+
+    /**
+     * Generates all the RAML files that are out of date and starts watching their inputs.
+     *
+     * @return the RAML files that failed to generate.
+     */
+    public Set<File> generate() {
+        return generate(ramlFiles.keySet());
+    }
+
+    /**
+     * Regenerates the RAML files affected by the changes that occurred since the previous call.
+     *
+     * @return the regenerated RAML files, including the ones that failed to generate.
+     */
+    public Set<File> regenerateChangedFiles() {
+        final Set<File> changedFiles = fileWatcher.poll();
+        if (changedFiles.isEmpty()) {
+            return changedFiles;
+        }
+
+        final Set<File> affectedRamlFiles = new LinkedHashSet<File>();
+        for (final File changedFile : new TreeSet<File>(changedFiles)) {
+            final ConfigurationFactory configurationFactory = getConfigurationFactory(changedFile);
+            if (configurationFactory == null) {
+                continue;
+            }
+
+            if (!ramlFiles.containsKey(changedFile) && changedFile.isFile()) {
+                LOGGER.info("Found new RAML file: " + changedFile);
+                addRamlFile(changedFile, configurationFactory.createConfiguration(changedFile));
+                affectedRamlFiles.add(changedFile);
+            } else if (ramlFiles.containsKey(changedFile) && !changedFile.exists()) {
+                LOGGER.info("Stopped watching deleted RAML file: " + changedFile);
+                ramlFiles.remove(changedFile);
+            }
+        }
+
+        for (final File ramlFile : ramlFiles.keySet()) {
+            for (final File input : getInputs(ramlFile)) {
+                if (isAffected(input, changedFiles)) {
+                    affectedRamlFiles.add(ramlFile);
+                    break;
+                }
+            }
+        }
+
+        if (!affectedRamlFiles.isEmpty()) {
+            LOGGER.info("Changed: " + changedFiles + ", regenerating: " + affectedRamlFiles);
+            generate(affectedRamlFiles);
+        }
+        return affectedRamlFiles;
+    }
+
+    /**
+     * Generates the RAML files that are out of date, then regenerates them on each change until
+     * stopped or interrupted.
+     */
+    public void watch(final long pollingInterval) throws InterruptedException {
+        Validate.isTrue(pollingInterval > 0, "pollingInterval must be positive");
+
+        stopped = false;
+        generate();
+        LOGGER.info("Watching " + ramlFiles.size() + " RAML file(s) for changes");
+
+        while (!stopped) {
+            Thread.sleep(pollingInterval);
+            regenerateChangedFiles();
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    private Set<File> generate(final Collection<File> ramlFilesToGenerate) {
+        final long start = System.currentTimeMillis();
+        final Set<File> failedRamlFiles = new HashSet<File>();
+
+        for (final File ramlFile : ramlFilesToGenerate) {
+            try {
+                incrementalGenerator.run(ramlFile.toURI().toURL(), ramlFiles.get(ramlFile));
+            } catch (final Exception e) {
+                // keep watching, the next change may fix it
+                LOGGER.error("Error generating Java classes from: " + ramlFile, e);
+                failedRamlFiles.add(ramlFile);
+            }
+        }
+
+        try {
+            manifest.save();
+        } catch (final Exception e) {
+            LOGGER.warn("Failed to save generation manifest in: " + manifest.getOutputDirectory(), e);
+        }
+
+        // the included resources may have changed
+        final List<File> roots = new ArrayList<File>(ramlDirectories.keySet());
+        for (final File ramlFile : ramlFiles.keySet()) {
+            roots.addAll(getInputs(ramlFile));
+        }
+        fileWatcher.setRoots(roots);
+
+        LOGGER.info("Generated " + ramlFilesToGenerate.size() + " RAML file(s) in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return failedRamlFiles;
+    }
+
+    /**
+     * @return the RAML file, the local resources it included during its last generation and its
+     *         schema directory.
+     */
+    private Set<File> getInputs(final File ramlFile) {
+        final Set<File> inputs = new LinkedHashSet<File>();
+        inputs.add(ramlFile);
+
+        try {
+            final GenerationManifest.Entry entry = manifest.getEntry(ramlFile.toURI().toURL().toString());
+            if (entry != null) {
+                for (final String input : entry.getInputs()) {
+                    final File inputFile = toFile(input);
+                    if (inputFile != null) {
+                        inputs.add(inputFile);
+                    }
+                }
+            }
+        } catch (final Exception e) {
+            LOGGER.debug("Failed to resolve the inputs of: " + ramlFile, e);
+        }
+
+        final File schemaLocation = ramlFiles.get(ramlFile).getSchemaLocation();
+        if (schemaLocation != null) {
+            inputs.add(schemaLocation.getAbsoluteFile());
+        }
+        return inputs;
+    }
+
+    /**
+     * @return the configuration factory of the watched directory a RAML file is in, or null if it
+     *         isn't a RAML file of a watched directory.
+     */
+    private ConfigurationFactory getConfigurationFactory(final File file) {
+        if (!FilenameUtils.isExtension(file.getName(), RAML_FILE_EXTENSIONS)) {
+            return null;
+        }
+
+        for (final Map.Entry<File, ConfigurationFactory> ramlDirectory : ramlDirectories.entrySet()) {
+            if (isAffected(ramlDirectory.getKey(), Collections.singleton(file))) {
+                return ramlDirectory.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static File toFile(final String resourceName) throws Exception {
+        if (resourceName.startsWith("file:")) {
+            return FileUtils.toFile(new URL(resourceName)).getAbsoluteFile();
+        }
+
+        final File file = new File(resourceName);
+        return file.isFile() ? file.getAbsoluteFile() : null;
+    }
+
+    private static boolean isAffected(final File input, final Set<File> changedFiles) {
+        for (final File changedFile : changedFiles) {
+            if (changedFile.equals(input) || changedFile.getPath().startsWith(input.getPath() + File.separator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -24,6 +24,8 @@ import com.sun.codemodel.JClass;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JDocComment;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
@@ -32,17 +34,24 @@ import static com.sun.codemodel.JMod.STATIC;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.mail.internet.MimeMultipart;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -61,7 +70,6 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.StreamingOutput;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import static org.apache.commons.lang.StringUtils.capitalize;
 import static org.apache.commons.lang.StringUtils.defaultString;
@@ -72,7 +80,14 @@ import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import static org.apache.commons.lang.builder.ToStringStyle.SHORT_PREFIX_STYLE;
 import org.apache.commons.lang.math.NumberUtils;
+import org.jsonschema2pojo.AnnotationStyle;
+import static org.raml.jaxrs.codegen.core.Constants.JAXRS_ASYNC_RESPONSE_CLASS;
+import static org.raml.jaxrs.codegen.core.Constants.JAXRS_SUSPENDED_ANNOTATION_CLASS;
 import static org.raml.jaxrs.codegen.core.Constants.RESPONSE_HEADER_WILDCARD_SYMBOL;
+import org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Counter;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Phase;
+import static org.raml.jaxrs.codegen.core.Names.ASYNC_RESPONSE_ARGUMENT_NAME;
 import static org.raml.jaxrs.codegen.core.Names.GENERIC_PAYLOAD_ARGUMENT_NAME;
 import static org.raml.jaxrs.codegen.core.Names.MULTIPLE_RESPONSE_HEADERS_ARGUMENT_NAME;
 import org.raml.model.Action;
@@ -86,6 +101,8 @@ import org.raml.model.parameter.FormParameter;
 import org.raml.model.parameter.Header;
 import org.raml.model.parameter.QueryParameter;
 import org.raml.model.parameter.UriParameter;
+import org.raml.parser.loader.DefaultResourceLoader;
+import org.raml.parser.loader.ResourceLoader;
 import org.raml.parser.rule.ValidationResult;
 import org.raml.parser.visitor.RamlDocumentBuilder;
 import org.raml.parser.visitor.RamlValidationService;
@@ -95,7 +112,7 @@ import org.slf4j.LoggerFactory;
 /**
  * Generates jackson-ready models and jersey resources from RAML/JSON
  */
-public class Generator {
+public class Generator implements Cloneable {
 
     protected static final String DEFAULT_ANNOTATION_PARAMETER = "value";
     protected static final String GENERIC_RESPONSE_METHOD_NAME = "respond";
@@ -106,12 +123,52 @@ public class Generator {
     private Types types;
 
     public Set<String> run(final URL ramlFile, final Configuration configuration) throws Exception {
-        final List<ValidationResult> results = RamlValidationService.createDefault().validate(ramlFile.toString());
+        return run(ramlFile, configuration, new DefaultResourceLoader());
+    }
+
+    /**
+     * Validates, parses and generates from a RAML file, fetching the RAML file and all its included
+     * resources with the provided {@link ResourceLoader}. Each resource is fetched only once: the
+     * same content is used for validation and parsing.
+     */
+    public Set<String> run(final URL ramlFile, final Configuration configuration,
+            final ResourceLoader resourceLoader) throws Exception {
+        final String ramlLocation = ramlFile.toString();
+        final CachingResourceLoader cachingResourceLoader = new CachingResourceLoader(resourceLoader);
+
+        final byte[] ramlContent = cachingResourceLoader.getContent(ramlLocation);
+        Validate.notNull(ramlContent, "RAML file not found: " + ramlLocation);
+        final String ramlBuffer = new String(ramlContent, "UTF-8");
+
+        final GenerationMetrics metrics = getGenerationMetrics(configuration);
+
+        final RamlModelCache ramlModelCache = configuration != null ? configuration.getRamlModelCache() : null;
+        if (ramlModelCache != null) {
+            final Raml cachedRaml = ramlModelCache.get(ramlLocation, ramlContent, cachingResourceLoader);
+            if (cachedRaml != null) {
+                metrics.increment(Counter.CACHED_RAML_MODELS);
+                return run(cachedRaml, configuration);
+            }
+        }
+
+        // records the included resources the cached model depends on
+        final RecordingResourceLoader recordingResourceLoader = new RecordingResourceLoader(cachingResourceLoader);
+
+        final long validationStart = metrics.start();
+        final List<ValidationResult> results = RamlValidationService.createDefault(recordingResourceLoader)
+                .validate(ramlBuffer, ramlLocation);
+        metrics.stop(Phase.VALIDATION, validationStart);
 
         if (ValidationResult.areValid(results)) {
-            final FileInputStream fiReader = new FileInputStream(new File(ramlFile.toURI()));
-            final String ramlBuffer = IOUtils.toString(fiReader, "UTF-8");
-            return run(new RamlDocumentBuilder().build(ramlBuffer, ramlFile.toString()), configuration);
+            final long parsingStart = metrics.start();
+            final Raml raml = new RamlDocumentBuilder(recordingResourceLoader).build(ramlBuffer, ramlLocation);
+            metrics.stop(Phase.PARSING, parsingStart);
+
+            if (ramlModelCache != null) {
+                ramlModelCache.put(ramlLocation, ramlContent, recordingResourceLoader.getResourceDigests(), raml);
+            }
+
+            return run(raml, configuration);
         } else {
             final List<String> validationErrors = Lists.transform(results,
                     new Function<ValidationResult, String>() {
@@ -128,37 +185,210 @@ public class Generator {
     protected void validate(final Configuration configuration) {
         Validate.notNull(configuration, "configuration can't be null");
 
-        final File outputDirectory = configuration.getOutputDirectory();
-        Validate.notNull(outputDirectory, "outputDirectory can't be null");
+        if (configuration.getSourceJarWriter() == null) {
+            final File outputDirectory = configuration.getOutputDirectory();
+            Validate.notNull(outputDirectory, "outputDirectory can't be null");
 
-        Validate.isTrue(outputDirectory.isDirectory(), outputDirectory + " is not a pre-existing directory");
-        Validate.isTrue(outputDirectory.canWrite(), outputDirectory + " can't be written to");
+            Validate.isTrue(outputDirectory.isDirectory(), outputDirectory + " is not a pre-existing directory");
+            Validate.isTrue(outputDirectory.canWrite(), outputDirectory + " can't be written to");
 
-        if (outputDirectory.listFiles().length > 0) {
-            LOGGER.warn("Directory "
-                    + outputDirectory
-                    + " is not empty, generation will work but pre-existing files may remain and produce "
-                    + "unexpected results");
+            if (outputDirectory.listFiles().length > 0) {
+                LOGGER.warn("Directory "
+                        + outputDirectory
+                        + " is not empty, generation will work but pre-existing files may remain and produce "
+                        + "unexpected results");
+            }
         }
 
         Validate.notEmpty(configuration.getBasePackageName(), "base package name can't be empty");
+
+        Validate.isTrue(configuration.getResourceThreads() > 0, "resourceThreads must be positive");
+        Validate.isTrue(configuration.getSchemaThreads() > 0, "schemaThreads must be positive");
+        Validate.isTrue(configuration.getResourceThreads() == 1 || !configuration.isStreamingGeneration(),
+                "resources can't be generated both concurrently and in streaming mode");
+        Validate.isTrue(!configuration.isAsyncResponses()
+                || configuration.getJaxrsVersion() == JaxrsVersion.JAXRS_2_0,
+                "asynchronous responses require JAX-RS 2.0");
+        Validate.isTrue(!configuration.isStreamingArrayResponses()
+                || configuration.getJsonMapper() != AnnotationStyle.NONE,
+                "streaming array responses require a JSON mapper");
     }
 
+    /**
+     * Generates from a parsed RAML definition. Each invocation works on its own copy of this
+     * generator, so a single instance can serve concurrent runs.
+     */
     public Set<String> run(final Raml raml, final Configuration configuration) throws Exception {
+        return fork().generate(raml, configuration);
+    }
+
+    private Set<String> generate(final Raml raml, final Configuration configuration) throws Exception {
         validate(configuration);
+        initialize(raml, configuration);
+
+        final GenerationMetrics metrics = context.getGenerationMetrics();
+        metrics.increment(Counter.RAML_FILES);
 
+        if (configuration.getSchemaThreads() > 1) {
+            // convert all the schemas concurrently before building resources
+            createSchemaClasses(raml.getResources().values());
+        }
+
+        final long resourcesStart = metrics.start();
+        if (configuration.getResourceThreads() > 1 && raml.getResources().size() > 1) {
+            createResourceInterfacesConcurrently(raml.getResources().values(), configuration.getResourceThreads());
+        } else {
+            for (final Resource resource : raml.getResources().values()) {
+                createResourceInterface(resource);
+
+                if (configuration.isStreamingGeneration()) {
+                    // write and release each resource as soon as it's complete
+                    context.flush();
+                    types.rebase();
+                }
+            }
+        }
+        metrics.stop(Phase.RESOURCES, resourcesStart);
+
+        final long writingStart = metrics.start();
+        try {
+            return context.generate();
+        } finally {
+            metrics.stop(Phase.WRITING, writingStart);
+        }
+    }
+
+    /**
+     * Creates the generation context and types for a RAML definition.
+     */
+    protected void initialize(final Raml raml, final Configuration configuration) throws IOException {
         context = new Context(configuration, raml);
         types = new Types(context);
+    }
+
+    /**
+     * Generates top-level resources concurrently, each one with its own context and code model, and
+     * merges them in their declaration order so the output is the same as a serial generation.
+     * <p>
+     * What depends on the order resources are processed in, resource interface names and schema
+     * classes, is assigned serially beforehand.
+     */
+    protected void createResourceInterfacesConcurrently(final Collection<Resource> resources, final int threads)
+            throws Exception {
+        final List<String> resourceInterfaceNames = new ArrayList<String>();
+        for (final Resource resource : resources) {
+            resourceInterfaceNames.add(context.reserveResourceInterfaceName(
+                    Names.buildResourceInterfaceName(resource)));
+        }
+        createSchemaClasses(resources);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threads, resources.size()));
+        try {
+            final List<Future<Context>> resourceContexts = new ArrayList<Future<Context>>();
+            final Iterator<String> resourceInterfaceName = resourceInterfaceNames.iterator();
+            for (final Resource resource : resources) {
+                final Generator resourceGenerator = fork(context.createResourceContext());
+                final String name = resourceInterfaceName.next();
+
+                resourceContexts.add(executorService.submit(new Callable<Context>() {
+                    @Override
+                    public Context call() throws Exception {
+                        resourceGenerator.createResourceInterface(resource, name);
+                        return resourceGenerator.context;
+                    }
+                }));
+            }
+
+            for (final Future<Context> resourceContext : resourceContexts) {
+                try {
+                    context.merge(resourceContext.get());
+                } catch (final ExecutionException ee) {
+                    throw ee.getCause() instanceof Exception ? (Exception) ee.getCause() : ee;
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @return a copy of this generator, holding the per-invocation state of a generation.
+     */
+    protected Generator fork() {
+        try {
+            return (Generator) clone();
+        } catch (final CloneNotSupportedException cnse) {
+            throw new IllegalStateException(cnse);
+        }
+    }
+
+    /**
+     * @return a copy of this generator working with another context, and types looking up the schema
+     *         classes already known by this generator.
+     */
+    protected Generator fork(final Context forkContext) {
+        final Generator generator = fork();
+        generator.context = forkContext;
+        generator.types = new Types(forkContext, types);
+        return generator;
+    }
+
+    /**
+     * Generates up front the schema classes used by resources, concurrently when configured to.
+     */
+    protected void createSchemaClasses(final Collection<Resource> resources) throws Exception {
+        final List<MimeType> mimeTypes = new ArrayList<MimeType>();
+        for (final Resource resource : resources) {
+            collectSchemaMimeTypes(resource, mimeTypes);
+        }
+
+        types.createSchemaClasses(mimeTypes, context.getConfiguration().getSchemaThreads());
+    }
+
+    /**
+     * Collects the body mime types of a resource and its children whose schema classes are resolved,
+     * in the same order as {@link #addResourceMethods(Resource, JDefinedClass, String)} does, so they
+     * get the same names.
+     */
+    protected void collectSchemaMimeTypes(final Resource resource, final List<MimeType> mimeTypes) {
+        for (final Action action : resource.getActions().values()) {
+            final boolean hasResponseBodies = !getUniqueResponseMimeTypes(action).isEmpty();
+            final Collection<MimeType> bodyMimeTypes = action.hasBody()
+                    ? action.getBody().values()
+                    : Collections.<MimeType> singleton(null);
+
+            for (final MimeType bodyMimeType : bodyMimeTypes) {
+                if (hasResponseBodies) {
+                    for (final Response response : action.getResponses().values()) {
+                        if (response.hasBody()) {
+                            for (final MimeType responseMimeType : response.getBody().values()) {
+                                if (responseMimeType != null) {
+                                    mimeTypes.add(responseMimeType);
+                                }
+                            }
+                        }
+                    }
+                }
 
-        for (final Resource resource : raml.getResources().values()) {
-            createResourceInterface(resource);
+                if (bodyMimeType != null
+                        && !MediaType.APPLICATION_FORM_URLENCODED.equals(bodyMimeType.getType())
+                        && !MediaType.MULTIPART_FORM_DATA.equals(bodyMimeType.getType())) {
+                    mimeTypes.add(bodyMimeType);
+                }
+            }
         }
 
-        return context.generate();
+        for (final Resource childResource : resource.getResources().values()) {
+            collectSchemaMimeTypes(childResource, mimeTypes);
+        }
     }
 
     protected void createResourceInterface(final Resource resource) throws Exception {
-        final String resourceInterfaceName = Names.buildResourceInterfaceName(resource);
+        createResourceInterface(resource, Names.buildResourceInterfaceName(resource));
+    }
+
+    protected void createResourceInterface(final Resource resource, final String resourceInterfaceName)
+            throws Exception {
         final JDefinedClass resourceInterface = context.createResourceInterface(resourceInterfaceName);
         context.setCurrentResourceInterface(resourceInterface);
 
@@ -176,6 +406,8 @@ public class Generator {
     protected void addResourceMethods(final Resource resource,
             final JDefinedClass resourceInterface,
             final String resourceInterfacePath) throws Exception {
+        context.getGenerationMetrics().increment(Counter.RESOURCES);
+
         for (final Action action : resource.getActions().values()) {
             if (!action.hasBody()) {
                 addResourceMethods(resourceInterface, resourceInterfacePath, action, null, false);
@@ -219,8 +451,9 @@ public class Generator {
 
         // the actually created unique method name should be needed in the previous method but
         // no way of doing this :(
+        final boolean asynchronous = context.getConfiguration().isAsyncResponses();
         final JMethod method = context.createResourceMethod(resourceInterface, methodName,
-                resourceMethodReturnType);
+                asynchronous ? types.getGeneratorType(void.class) : resourceMethodReturnType);
 
         context.addHttpMethodAnnotation(action.getType().toString(), method);
 
@@ -235,6 +468,35 @@ public class Generator {
         addQueryParameters(action, method, javadoc);
 
         addBodyParameters(action.getType(), bodyMimeType, method, javadoc);
+
+        if (asynchronous) {
+            addAsyncResponseParameter(resourceMethodReturnType, method, javadoc);
+        }
+    }
+
+    /**
+     * Adds the suspended response of an asynchronous resource method, to be resumed with what the
+     * method would have returned. It is added last, and suffixed if a RAML parameter already has its
+     * name.
+     */
+    protected void addAsyncResponseParameter(final JType resourceMethodReturnType,
+            final JMethod method,
+            final JDocComment javadoc) {
+        final NameRegistry parameterNames = new NameRegistry();
+        for (final JVar parameter : method.params()) {
+            parameterNames.reserve(parameter.name());
+        }
+
+        final JVar asyncResponse = method.param(context.getCodeModel().directClass(JAXRS_ASYNC_RESPONSE_CLASS),
+                parameterNames.reserve(ASYNC_RESPONSE_ARGUMENT_NAME));
+        asyncResponse.annotate(context.getCodeModel().directClass(JAXRS_SUSPENDED_ANNOTATION_CLASS));
+
+        if (resourceMethodReturnType == types.getGeneratorType(void.class)) {
+            javadoc.addParam(asyncResponse).add("to resume once the request is handled");
+        } else {
+            javadoc.addParam(asyncResponse).add("to resume with a {@link " + resourceMethodReturnType.name()
+                    + "} once the request is handled");
+        }
     }
 
     protected JType getResourceMethodReturnType(final String methodName,
@@ -243,17 +505,44 @@ public class Generator {
             final JDefinedClass resourceInterface) throws Exception {
         if (returnsVoid) {
             return types.getGeneratorType(void.class);
+        } else if (context.getConfiguration().isLightweightResponses()) {
+            createLightweightResponseFactories(methodName, action, resourceInterface);
+            return types.getGeneratorType(javax.ws.rs.core.Response.class);
         } else {
             return createResourceMethodReturnType(methodName, action, resourceInterface);
         }
     }
 
+    /**
+     * Creates a class of static factories building the responses of a resource method, which are
+     * returned as is instead of being wrapped.
+     */
+    protected JDefinedClass createLightweightResponseFactories(final String methodName,
+            final Action action,
+            final JDefinedClass resourceInterface)
+            throws Exception {
+        final JDefinedClass responseClass = context.createResponseClass(resourceInterface,
+                JMod.PUBLIC | JMod.STATIC | JMod.FINAL, capitalize(methodName) + "Response");
+        context.getGenerationMetrics().increment(Counter.RESPONSE_CLASSES);
+
+        responseClass.constructor(JMod.PRIVATE);
+
+        for (final Entry<String, Response> statusCodeAndResponse : action.getResponses().entrySet()) {
+            createResponseBuilderInResourceMethodReturnType(action, responseClass, statusCodeAndResponse);
+        }
+
+        createGenericResponseBuilderInResourceMethodReturnType(responseClass);
+
+        return responseClass;
+    }
+
     protected JDefinedClass createResourceMethodReturnType(final String methodName,
             final Action action,
             final JDefinedClass resourceInterface)
             throws Exception {
-        final JDefinedClass responseClass = resourceInterface._class(capitalize(methodName) + "Response")
-                ._extends(context.getResponseWrapperType());
+        final JDefinedClass responseClass = context.createResponseClass(resourceInterface,
+                capitalize(methodName) + "Response")._extends(context.getResponseWrapperType());
+        context.getGenerationMetrics().increment(Counter.RESPONSE_CLASSES);
 
         final JMethod responseClassConstructor = responseClass.constructor(JMod.PRIVATE);
         responseClassConstructor.param(javax.ws.rs.core.Response.class, "delegate");
@@ -280,6 +569,14 @@ public class Generator {
         } else {
             for (final MimeType mimeType : response.getBody().values()) {
                 createResponseBuilderInResourceMethodReturnType(responseClass, statusCode, response, mimeType);
+
+                final JClass elementClass = context.getConfiguration().isStreamingArrayResponses()
+                        ? types.getResponseEntityElementClass(mimeType)
+                        : null;
+                if (elementClass != null) {
+                    createResponseBuilderInResourceMethodReturnType(responseClass, statusCode, response, mimeType,
+                            elementClass);
+                }
             }
         }
     }
@@ -289,10 +586,25 @@ public class Generator {
             final Response response,
             final MimeType responseMimeType)
             throws Exception {
-        final String responseBuilderMethodName = Names.buildResponseMethodName(statusCode, responseMimeType);
+        createResponseBuilderInResourceMethodReturnType(responseClass, statusCode, response, responseMimeType, null);
+    }
+
+    /**
+     * @param streamedElementClass when not null, the created factory takes an iterator of the
+     *            elements of the JSON array response, written one by one, instead of the whole array.
+     */
+    protected void createResponseBuilderInResourceMethodReturnType(final JDefinedClass responseClass,
+            final int statusCode,
+            final Response response,
+            final MimeType responseMimeType,
+            final JClass streamedElementClass)
+            throws Exception {
+        final String responseBuilderMethodName = streamedElementClass != null
+                ? Names.buildStreamingResponseMethodName(statusCode, responseMimeType)
+                : Names.buildResponseMethodName(statusCode, responseMimeType);
 
-        final JMethod responseBuilderMethod = responseClass.method(PUBLIC + STATIC, responseClass,
-                responseBuilderMethodName);
+        final JMethod responseBuilderMethod = responseClass.method(PUBLIC + STATIC,
+                getResponseFactoryReturnType(responseClass), responseBuilderMethodName);
 
         final JDocComment javadoc = responseBuilderMethod.javadoc();
 
@@ -304,7 +616,10 @@ public class Generator {
                 .staticInvoke("status")
                 .arg(JExpr.lit(statusCode));
 
-        if (responseMimeType != null) {
+        if (responseMimeType != null && context.getConfiguration().isMediaTypeConstants()) {
+            builderArgument = builderArgument.invoke("type")
+                    .arg(context.getMediaTypeConstant(responseClass, responseMimeType.getType()));
+        } else if (responseMimeType != null) {
             builderArgument = builderArgument.invoke("header")
                     .arg(HttpHeaders.CONTENT_TYPE)
                     .arg(responseMimeType.getType());
@@ -330,7 +645,18 @@ public class Generator {
             responseBuilderMethod.param(types.buildParameterType(header, argumentName), argumentName);
         }
 
-        final JBlock responseBuilderMethodBody = responseBuilderMethod.body();
+        JBlock responseBuilderMethodBody = responseBuilderMethod.body();
+        JVar cachedResponse = null;
+        JFieldVar cachedResponseField = null;
+
+        if (isCacheableResponse(response, responseMimeType)) {
+            // no argument: build the response once, racing threads would only build equal responses
+            final JType responseType = types.getGeneratorType(javax.ws.rs.core.Response.class);
+            cachedResponseField = responseClass.field(JMod.PRIVATE | JMod.STATIC | JMod.VOLATILE, responseType,
+                    Names.buildCachedResponseFieldName(responseBuilderMethodName));
+            cachedResponse = responseBuilderMethodBody.decl(responseType, "response", cachedResponseField);
+            responseBuilderMethodBody = responseBuilderMethodBody._if(cachedResponse.eq(JExpr._null()))._then();
+        }
 
         final JVar builderVariable = responseBuilderMethodBody.decl(
                 types.getGeneratorType(ResponseBuilder.class), "responseBuilder", builderArgument);
@@ -341,9 +667,12 @@ public class Generator {
             final JClass headersArgument = types.getGeneratorClass(Map.class).narrow(
                     types.getGeneratorClass(String.class), listOfObjectsClass);
 
-            builderArgument = responseBuilderMethodBody.invoke("headers")
+            final JInvocation headersInvocation = context.getConfiguration().isLightweightResponses()
+                    ? context.getResponseHeadersType().staticInvoke("headers")
+                    : JExpr.invoke("headers");
+            responseBuilderMethodBody.add(headersInvocation
                     .arg(JExpr.ref(MULTIPLE_RESPONSE_HEADERS_ARGUMENT_NAME))
-                    .arg(builderVariable);
+                    .arg(builderVariable));
 
             final JVar param = responseBuilderMethod.param(headersArgument,
                     MULTIPLE_RESPONSE_HEADERS_ARGUMENT_NAME);
@@ -351,7 +680,14 @@ public class Generator {
             javadoc.addParam(param).add(freeFormHeadersDescription.toString());
         }
 
-        if (responseMimeType != null) {
+        if (streamedElementClass != null) {
+            responseBuilderMethodBody.invoke(builderVariable, "entity").arg(
+                    JExpr._new(context.getJsonArrayOutputType()).arg(JExpr.ref(GENERIC_PAYLOAD_ARGUMENT_NAME)));
+            responseBuilderMethod.param(types.getGeneratorClass(Iterator.class).narrow(
+                    streamedElementClass.wildcard()), GENERIC_PAYLOAD_ARGUMENT_NAME);
+            javadoc.addParam(GENERIC_PAYLOAD_ARGUMENT_NAME).add(
+                    "the elements of the array, written one by one as they are iterated");
+        } else if (responseMimeType != null) {
             responseBuilderMethodBody.invoke(builderVariable, "entity").arg(
                     JExpr.ref(GENERIC_PAYLOAD_ARGUMENT_NAME));
             responseBuilderMethod.param(types.getResponseEntityClass(responseMimeType),
@@ -359,15 +695,37 @@ public class Generator {
             javadoc.addParam(GENERIC_PAYLOAD_ARGUMENT_NAME);
         }
 
-        responseBuilderMethodBody._return(JExpr._new(responseClass).arg(builderVariable.invoke("build")));
+        if (cachedResponse != null) {
+            responseBuilderMethodBody.assign(cachedResponse, builderVariable.invoke("build"));
+            responseBuilderMethodBody.assign(cachedResponseField, cachedResponse);
+            // the cached response is only a template: containers and filters modify returned responses
+            responseBuilderMethod.body()._return(buildResponse(responseClass,
+                    types.getGeneratorClass(javax.ws.rs.core.Response.class).staticInvoke("fromResponse")
+                            .arg(cachedResponse)));
+        } else {
+            responseBuilderMethodBody._return(buildResponse(responseClass, builderVariable));
+        }
+    }
+
+    /**
+     * Factories without arguments build the same response on each call, so it is only built once, as
+     * a template. The template itself is never returned: Jersey 1 adopts the metadata of returned
+     * responses as its live header map, which response filters add headers to. Each call returns a
+     * copy made with {@link javax.ws.rs.core.Response#fromResponse}. Only done when targeting JAX-RS 1.1.
+     */
+    private boolean isCacheableResponse(final Response response, final MimeType responseMimeType) {
+        return context.getConfiguration().isCachedResponses()
+                && context.getConfiguration().getJaxrsVersion() == JaxrsVersion.JAXRS_1_1
+                && responseMimeType == null
+                && response.getHeaders().isEmpty();
     }
 
     protected void createGenericResponseBuilderInResourceMethodReturnType(final JDefinedClass responseClass)
             throws Exception {
         final String responseBuilderMethodName = GENERIC_RESPONSE_METHOD_NAME;
 
-        final JMethod responseBuilderMethod = responseClass.method(PUBLIC + STATIC, responseClass,
-                responseBuilderMethodName);
+        final JMethod responseBuilderMethod = responseClass.method(PUBLIC + STATIC,
+                getResponseFactoryReturnType(responseClass), responseBuilderMethodName);
 
         JInvocation builderArgument = types.getGeneratorClass(javax.ws.rs.core.Response.class)
                 .staticInvoke("status")
@@ -383,7 +741,18 @@ public class Generator {
         responseBuilderMethodBody.invoke(builderVariable, GENERIC_PAYLOAD_ARGUMENT_NAME).arg(
                 JExpr.ref(GENERIC_PAYLOAD_ARGUMENT_NAME));
 
-        responseBuilderMethodBody._return(JExpr._new(responseClass).arg(builderVariable.invoke("build")));
+        responseBuilderMethodBody._return(buildResponse(responseClass, builderVariable));
+    }
+
+    private JType getResponseFactoryReturnType(final JDefinedClass responseClass) {
+        return context.getConfiguration().isLightweightResponses()
+                ? types.getGeneratorType(javax.ws.rs.core.Response.class)
+                : responseClass;
+    }
+
+    private JExpression buildResponse(final JDefinedClass responseClass, final JExpression builder) {
+        final JInvocation response = builder.invoke("build");
+        return context.getConfiguration().isLightweightResponses() ? response : JExpr._new(responseClass).arg(response);
     }
 
     protected JDocComment addBaseJavaDoc(final Action action, final JMethod method) {
@@ -425,7 +794,8 @@ public class Generator {
     }
 
     protected Collection<MimeType> getUniqueResponseMimeTypes(final Action action) {
-        final Map<String, MimeType> responseMimeTypes = new HashMap<String, MimeType>();
+        // keeps the declaration order, so @Produces is the same from one generation to the next
+        final Map<String, MimeType> responseMimeTypes = new LinkedHashMap<String, MimeType>();
         for (final Response response : action.getResponses().values()) {
             if (response.hasBody()) {
                 for (final MimeType responseMimeType : response.getBody().values()) {
@@ -638,6 +1008,13 @@ public class Generator {
         sb.append("<br/>\n");
     }
 
+    private static GenerationMetrics getGenerationMetrics(final Configuration configuration) {
+        // metrics are recorded in a throwaway instance when not requested
+        return configuration != null && configuration.getGenerationMetrics() != null
+                ? configuration.getGenerationMetrics()
+                : new GenerationMetrics();
+    }
+
     protected Context getContext() {
         return context;
     }
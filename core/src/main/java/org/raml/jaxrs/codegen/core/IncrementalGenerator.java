@@ -0,0 +1,196 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.Validate;
+import org.raml.parser.loader.DefaultResourceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Only regenerates RAML files whose inputs (root file, included files, schemas and configuration)
+ * have changed since the last generation recorded in a {@link GenerationManifest}.
+ * @author JAshe
+ */
+public class IncrementalGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalGenerator.class);
+
+    private final Generator generator;
+    private final GenerationManifest manifest;
+
+    public IncrementalGenerator(final Generator generator, final GenerationManifest manifest) {
+        Validate.notNull(generator, "generator can't be null");
+        Validate.notNull(manifest, "manifest can't be null");
+
+        this.generator = generator;
+        this.manifest = manifest;
+    }
+
+    /**
+     * @return the files generated from the RAML file, either now or during the previous generation if
+     *         it was up to date.
+     */
+    public Set<String> run(final URL ramlFile, final Configuration configuration) throws Exception {
+        final String ramlFileKey = ramlFile.toString();
+
+        if (isUpToDate(ramlFile, configuration)) {
+            LOGGER.info("Skipping up to date RAML file: " + ramlFile);
+            return manifest.getEntry(ramlFileKey).getOutputs();
+        }
+
+        final RecordingResourceLoader resourceLoader = new RecordingResourceLoader(new DefaultResourceLoader());
+        // always track the root RAML file, whether the parser fetches it or not
+        IOUtils.closeQuietly(resourceLoader.fetchResource(ramlFileKey));
+
+        final Set<String> generatedFiles;
+        try {
+            generatedFiles = generator.run(ramlFile, configuration, resourceLoader);
+        } catch (final Exception e) {
+            manifest.invalidate(ramlFileKey);
+            throw e;
+        }
+
+        final Map<String, String> inputDigests = resourceLoader.getResourceDigests();
+        manifest.update(ramlFileKey, new GenerationManifest.Entry(computeFingerprint(inputDigests, configuration),
+                inputDigests.keySet(), generatedFiles));
+
+        return generatedFiles;
+    }
+
+    /**
+     * RAML files sharing model classes must be generated together: the shared classes of a skipped
+     * RAML file are not registered, so a changed RAML file could take their names and overwrite them.
+     * This forces the regeneration of all the RAML files when any of them is out of date.
+     * @param ramlFiles the RAML files sharing model classes, with their configurations
+     */
+    public void invalidateAllIfAnyChanged(final Map<URL, Configuration> ramlFiles) throws IOException {
+        for (final Map.Entry<URL, Configuration> ramlFileAndConfiguration : ramlFiles.entrySet()) {
+            if (!isUpToDate(ramlFileAndConfiguration.getKey(), ramlFileAndConfiguration.getValue())) {
+                LOGGER.info("Regenerating all the RAML files sharing model classes with: "
+                        + ramlFileAndConfiguration.getKey());
+
+                for (final URL ramlFile : ramlFiles.keySet()) {
+                    manifest.invalidate(ramlFile.toString());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the RAML file was generated before, from the same inputs and configuration, and
+     *         its generated files still exist.
+     */
+    public boolean isUpToDate(final URL ramlFile, final Configuration configuration) throws IOException {
+        final GenerationManifest.Entry previousEntry = manifest.getEntry(ramlFile.toString());
+
+        // a source JAR is written from scratch, so it needs all the generated files
+        if ((previousEntry == null) || (previousEntry.getFingerprint() == null)
+                || (configuration.getSourceJarWriter() != null)) {
+            return false;
+        }
+
+        final String currentFingerprint = computeFingerprint(getCurrentDigests(previousEntry.getInputs()),
+                configuration);
+
+        return previousEntry.getFingerprint().equals(currentFingerprint)
+                && outputsExist(previousEntry.getOutputs(), configuration.getOutputDirectory());
+    }
+
+    /**
+     * Generated files can be deleted by hand or by a clean, without the manifest knowing it.
+     */
+    private boolean outputsExist(final Set<String> outputs, final File outputDirectory) {
+        for (final String output : outputs) {
+            if (!new File(outputDirectory, output).isFile()) {
+                LOGGER.info("Regenerating missing file: " + output);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, String> getCurrentDigests(final Collection<String> inputs) {
+        final RecordingResourceLoader resourceLoader = new RecordingResourceLoader(new DefaultResourceLoader());
+        for (final String input : inputs) {
+            IOUtils.closeQuietly(resourceLoader.fetchResource(input));
+        }
+        return resourceLoader.getResourceDigests();
+    }
+
+    private String computeFingerprint(final Map<String, String> inputDigests, final Configuration configuration)
+            throws IOException {
+        final MessageDigest digest = Digests.newDigest();
+
+        update(digest, describe(configuration));
+
+        for (final Map.Entry<String, String> inputAndDigest : inputDigests.entrySet()) {
+            update(digest, inputAndDigest.getKey());
+            update(digest, inputAndDigest.getValue());
+        }
+
+        final File schemaLocation = configuration.getSchemaLocation();
+        if ((schemaLocation != null) && schemaLocation.isDirectory()) {
+            final List<File> schemaFiles = new ArrayList<File>(FileUtils.listFiles(schemaLocation, null, true));
+            Collections.sort(schemaFiles);
+
+            for (final File schemaFile : schemaFiles) {
+                update(digest, schemaFile.getPath());
+                update(digest, Digests.digest(FileUtils.readFileToByteArray(schemaFile)));
+            }
+        }
+
+        return Digests.toHex(digest.digest());
+    }
+
+    private static String describe(final Configuration configuration) {
+        final List<Object> values = new ArrayList<Object>();
+        values.add(configuration.getOutputDirectory());
+        values.add(configuration.getJaxrsVersion());
+        values.add(configuration.getBasePackageName());
+        values.add(configuration.isUseJsr303Annotations());
+        values.add(configuration.getJsonMapper());
+        values.add(configuration.getSchemaLocation());
+        values.add(configuration.isMediaTypeConstants());
+        values.add(configuration.isLightweightResponses());
+        values.add(configuration.isCachedResponses());
+        values.add(configuration.isAsyncResponses());
+        values.add(configuration.isStreamingArrayResponses());
+        values.add(configuration.getSharedModelRegistry() != null
+                ? configuration.getSharedModelRegistry().getModelPackageName()
+                : null);
+        return values.toString();
+    }
+
+    private static void update(final MessageDigest digest, final String value) throws IOException {
+        digest.update(value.getBytes("UTF-8"));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands out unique names, suffixing a base name with the lowest free number when it is already
+ * taken: <code>name</code>, <code>name1</code>, <code>name2</code>...
+ * <p>
+ * A next suffix is kept per base name, so reserving N colliding names doesn't probe N times each.
+ * As names are never released, the lowest free suffix is never below the next one.
+ * @author JAshe
+ */
+public class NameRegistry {
+
+    private final Set<String> names;
+    private final Map<String, Integer> nextSuffixes;
+
+    public NameRegistry() {
+        names = new HashSet<String>();
+        nextSuffixes = new HashMap<String, Integer>();
+    }
+
+    /**
+     * @return the base name, or the base name with the lowest suffix making it unique.
+     */
+    public String reserve(final String baseName) {
+        final Integer nextSuffix = nextSuffixes.get(baseName);
+
+        int i = nextSuffix == null ? 0 : nextSuffix;
+        String name;
+        do {
+            name = i == 0 ? baseName : baseName + i;
+            i++;
+        } while (!names.add(name));
+
+        nextSuffixes.put(baseName, i);
+        return name;
+    }
+}
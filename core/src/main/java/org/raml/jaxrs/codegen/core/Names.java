@@ -15,15 +15,16 @@
  */
 package org.raml.jaxrs.codegen.core;
 
+import static org.apache.commons.lang.StringUtils.capitalize;
 import static org.apache.commons.lang.StringUtils.defaultIfBlank;
 import static org.apache.commons.lang.StringUtils.isBlank;
-import static org.apache.commons.lang.StringUtils.left;
 import static org.apache.commons.lang.StringUtils.remove;
 import static org.apache.commons.lang.StringUtils.uncapitalize;
-import static org.apache.commons.lang.WordUtils.capitalize;
-import static org.apache.commons.lang.math.NumberUtils.isDigits;
 import static org.raml.jaxrs.codegen.core.Constants.DEFAULT_LOCALE;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.impl.EnglishReasonPhraseCatalog;
 import org.raml.model.Action;
@@ -38,8 +39,13 @@ public final class Names {
 
     public static final String GENERIC_PAYLOAD_ARGUMENT_NAME = "entity";
     public static final String MULTIPLE_RESPONSE_HEADERS_ARGUMENT_NAME = "headers";
+    public static final String ASYNC_RESPONSE_ARGUMENT_NAME = "asyncResponse";
     public static final String EXAMPLE_PREFIX = " e.g. ";
 
+    // the same URIs and display names are named over and over
+    private static final int MAX_CACHED_JAVA_FRIENDLY_NAMES = 10000;
+    private static final ConcurrentMap<String, String> JAVA_FRIENDLY_NAMES = new ConcurrentHashMap<String, String>();
+
     public static String buildResourceInterfaceName(final Resource resource) {
         final String resourceInterfaceName = buildJavaFriendlyName(defaultIfBlank(resource.getDisplayName(),
                 resource.getRelativeUri()));
@@ -54,15 +60,74 @@ public final class Names {
     }
 
     public static String buildJavaFriendlyName(final String source) {
-        final String baseName = source.replaceAll("[\\W_]", " ");
+        String friendlyName = JAVA_FRIENDLY_NAMES.get(source);
+        if (friendlyName == null) {
+            if (JAVA_FRIENDLY_NAMES.size() >= MAX_CACHED_JAVA_FRIENDLY_NAMES) {
+                JAVA_FRIENDLY_NAMES.clear();
+            }
+            friendlyName = computeJavaFriendlyName(source);
+            JAVA_FRIENDLY_NAMES.put(source, friendlyName);
+        }
+        return friendlyName;
+    }
 
-        String friendlyName = capitalize(baseName).replaceAll("[\\W_]", "");
+    /**
+     * Removes all the characters but ASCII letters and digits, capitalizing the first letter of
+     * each remaining word, and prefixes a leading digit with an underscore.
+     */
+    private static String computeJavaFriendlyName(final String source) {
+        final StringBuilder friendlyName = new StringBuilder(source.length() + 1);
+
+        boolean wordStart = true;
+        for (int i = 0; i < source.length(); i++) {
+            final char c = source.charAt(i);
+
+            if (isAsciiLetterOrDigit(c)) {
+                friendlyName.append(wordStart ? Character.toTitleCase(c) : c);
+                wordStart = false;
+            } else {
+                wordStart = true;
+            }
+        }
 
-        if (isDigits(left(friendlyName, 1))) {
-            friendlyName = "_" + friendlyName;
+        if (friendlyName.length() > 0 && friendlyName.charAt(0) >= '0' && friendlyName.charAt(0) <= '9') {
+            friendlyName.insert(0, '_');
         }
 
-        return friendlyName;
+        return friendlyName.toString();
+    }
+
+    /**
+     * @return an upper case constant name for a media type, like APPLICATION_VND_ACME_JSON_TYPE for
+     *         application/vnd.acme+json.
+     */
+    public static String buildMediaTypeConstantName(final String mediaType) {
+        final StringBuilder constantName = new StringBuilder(mediaType.length() + 5);
+
+        for (int i = 0; i < mediaType.length(); i++) {
+            final char c = mediaType.charAt(i);
+
+            if (isAsciiLetterOrDigit(c)) {
+                constantName.append(Character.toUpperCase(c));
+            } else if (constantName.length() > 0 && constantName.charAt(constantName.length() - 1) != '_') {
+                constantName.append('_');
+            }
+        }
+
+        if (constantName.length() == 0 || constantName.charAt(constantName.length() - 1) != '_') {
+            constantName.append('_');
+        }
+        constantName.append("TYPE");
+
+        if (constantName.charAt(0) >= '0' && constantName.charAt(0) <= '9') {
+            constantName.insert(0, '_');
+        }
+
+        return constantName.toString();
+    }
+
+    private static boolean isAsciiLetterOrDigit(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
     }
 
     public static String buildResourceMethodName(final Action action, final MimeType bodyMimeType) {
@@ -75,14 +140,24 @@ public final class Names {
 
     public static String buildResponseMethodName(final int statusCode, final MimeType mimeType) {
         final String status = EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, DEFAULT_LOCALE);
-        return uncapitalize(getShortMimeType(mimeType)
+        // custom media types, like application/hal+json, aren't identifiers
+        return uncapitalize(buildJavaFriendlyName(getShortMimeType(mimeType))
                 + buildJavaFriendlyName(defaultIfBlank(status, "_" + statusCode)));
     }
 
+    public static String buildStreamingResponseMethodName(final int statusCode, final MimeType mimeType) {
+        return buildResponseMethodName(statusCode, mimeType) + "Streaming";
+    }
+
+    public static String buildCachedResponseFieldName(final String responseMethodName) {
+        return "cached" + capitalize(responseMethodName);
+    }
+
     public static String buildNestedSchemaName(final MimeType mimeType) {
         // TODO improve naming strategy for nested schemas
+        // String hash codes are specified, unlike identity hash codes, so names are the same on any JVM
         return getShortMimeType(mimeType)
-                + (isBlank(mimeType.getSchema()) ? mimeType.hashCode() : mimeType.getSchema().hashCode());
+                + (isBlank(mimeType.getSchema()) ? mimeType.getType() : mimeType.getSchema()).hashCode();
     }
 
     private static String buildMimeTypeInfix(final MimeType bodyMimeType) {
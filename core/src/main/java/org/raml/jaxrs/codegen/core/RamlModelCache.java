@@ -0,0 +1,312 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.Validate;
+import org.raml.model.Raml;
+import org.raml.parser.loader.ResourceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps parsed and validated RAML models on disk, so unchanged RAML files don't have to be validated
+ * and parsed again by the next generations.
+ * <p>
+ * An entry is stored for each RAML file location and root file content, as a GZIP compressed Java
+ * serialization of the model preceded by the digests of all the resources included by the RAML file.
+ * It is only used if none of these included resources has changed. The least recently used entries
+ * are evicted when there are more than the maximum number of entries.
+ * <p>
+ * The most recently used models are also kept in memory, softly referenced, and shared by all the
+ * generations using this cache, which don't modify them.
+ * @author JAshe
+ */
+public class RamlModelCache {
+
+    public static final String FILE_EXTENSION = ".raml-model";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RamlModelCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    // only the RAML model and the JDK types it uses can be deserialized
+    private static final List<String> ALLOWED_CLASS_PREFIXES = Arrays.asList("org.raml.model.", "java.lang.",
+            "java.util.", "java.math.", "[");
+
+    private final File directory;
+    private final int maxEntries;
+    private final Map<String, SoftReference<CachedModel>> memoryEntries;
+
+    public RamlModelCache(final File directory, final int maxEntries) {
+        Validate.notNull(directory, "directory can't be null");
+        Validate.isTrue(maxEntries > 0, "maxEntries must be positive");
+
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+
+        memoryEntries = new LinkedHashMap<String, SoftReference<CachedModel>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Entry<String, SoftReference<CachedModel>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the cached model of a RAML file, or null if there is none or one of the resources it
+     *         includes, fetched with the provided resource loader, has changed.
+     */
+    public Raml get(final String ramlLocation, final byte[] ramlContent, final ResourceLoader resourceLoader) {
+        final File entryFile = getEntryFile(ramlLocation, ramlContent);
+
+        final CachedModel memoryEntry = getMemoryEntry(entryFile);
+        if (memoryEntry != null) {
+            try {
+                if (memoryEntry.isUpToDate(ramlLocation, resourceLoader)) {
+                    entryFile.setLastModified(System.currentTimeMillis());
+                    return memoryEntry.raml;
+                }
+                return null;
+            } catch (final IOException ioe) {
+                LOGGER.warn("Failed to check the resources included by: " + ramlLocation, ioe);
+                return null;
+            }
+        }
+
+        if (!entryFile.isFile()) {
+            return null;
+        }
+
+        try {
+            final ObjectInputStream input = new RamlModelInputStream(new GZIPInputStream(new BufferedInputStream(
+                    new FileInputStream(entryFile))));
+            try {
+                if (input.readInt() != FORMAT_VERSION || !ramlLocation.equals(input.readUTF())) {
+                    return null;
+                }
+
+                final int includedResourceCount = input.readInt();
+                final Map<String, String> includedResourceDigests = new LinkedHashMap<String, String>();
+                for (int i = 0; i < includedResourceCount; i++) {
+                    includedResourceDigests.put(input.readUTF(), input.readUTF());
+                }
+
+                final CachedModel cachedModel = new CachedModel(includedResourceDigests, null);
+                if (!cachedModel.isUpToDate(ramlLocation, resourceLoader)) {
+                    return null;
+                }
+
+                final Raml raml = (Raml) input.readObject();
+                putMemoryEntry(entryFile, new CachedModel(includedResourceDigests, raml));
+
+                // keeps track of the least recently used entries
+                entryFile.setLastModified(System.currentTimeMillis());
+                return raml;
+            } finally {
+                IOUtils.closeQuietly(input);
+            }
+        } catch (final Exception e) {
+            LOGGER.warn("Failed to read cached RAML model from: " + entryFile + ", it will be replaced", e);
+            FileUtils.deleteQuietly(entryFile);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the model of a valid RAML file, along with the digests of all the resources it includes.
+     */
+    public void put(final String ramlLocation,
+                    final byte[] ramlContent,
+                    final Map<String, String> includedResourceDigests,
+                    final Raml raml) {
+        final File entryFile = getEntryFile(ramlLocation, ramlContent);
+        putMemoryEntry(entryFile, new CachedModel(new HashMap<String, String>(includedResourceDigests), raml));
+
+        File temporaryFile = null;
+
+        try {
+            FileUtils.forceMkdir(directory);
+            temporaryFile = File.createTempFile("raml-model", ".tmp", directory);
+
+            final ObjectOutputStream output = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(temporaryFile))));
+            try {
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(ramlLocation);
+                output.writeInt(includedResourceDigests.size());
+                for (final Entry<String, String> includedResourceDigest : includedResourceDigests.entrySet()) {
+                    output.writeUTF(includedResourceDigest.getKey());
+                    output.writeUTF(includedResourceDigest.getValue());
+                }
+                output.writeObject(raml);
+            } finally {
+                output.close();
+            }
+
+            // concurrent generations may store the same entry, the last one wins
+            FileUtils.deleteQuietly(entryFile);
+            if (!temporaryFile.renameTo(entryFile)) {
+                throw new IOException("Failed to rename " + temporaryFile + " to " + entryFile);
+            }
+        } catch (final IOException ioe) {
+            LOGGER.warn("Failed to cache RAML model of: " + ramlLocation, ioe);
+        } finally {
+            FileUtils.deleteQuietly(temporaryFile);
+        }
+
+        evictLeastRecentlyUsedEntries();
+    }
+
+    private CachedModel getMemoryEntry(final File entryFile) {
+        synchronized (memoryEntries) {
+            final SoftReference<CachedModel> memoryEntry = memoryEntries.get(entryFile.getName());
+            return memoryEntry != null ? memoryEntry.get() : null;
+        }
+    }
+
+    private void putMemoryEntry(final File entryFile, final CachedModel cachedModel) {
+        synchronized (memoryEntries) {
+            memoryEntries.put(entryFile.getName(), new SoftReference<CachedModel>(cachedModel));
+        }
+    }
+
+    private File getEntryFile(final String ramlLocation, final byte[] ramlContent) {
+        return new File(directory, Digests.digest(ramlLocation + "\n" + Digests.digest(ramlContent))
+                + FILE_EXTENSION);
+    }
+
+    private static String digest(final String resourceName, final ResourceLoader resourceLoader)
+            throws IOException {
+        final InputStream resource = resourceLoader.fetchResource(resourceName);
+        if (resource == null) {
+            return null;
+        }
+
+        try {
+            return Digests.digest(IOUtils.toByteArray(resource));
+        } finally {
+            IOUtils.closeQuietly(resource);
+        }
+    }
+
+    private void evictLeastRecentlyUsedEntries() {
+        final File[] entryFiles = directory.listFiles();
+        if (entryFiles == null) {
+            return;
+        }
+
+        final List<File> entries = new ArrayList<File>();
+        final Map<File, Long> lastUses = new HashMap<File, Long>();
+        for (final File entryFile : entryFiles) {
+            if (entryFile.getName().endsWith(FILE_EXTENSION)) {
+                entries.add(entryFile);
+                lastUses.put(entryFile, entryFile.lastModified());
+            }
+        }
+
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+
+        Collections.sort(entries, new Comparator<File>() {
+            @Override
+            public int compare(final File entry1, final File entry2) {
+                return lastUses.get(entry2).compareTo(lastUses.get(entry1));
+            }
+        });
+
+        for (final File evictedEntry : entries.subList(maxEntries, entries.size())) {
+            LOGGER.debug("Evicting cached RAML model: " + evictedEntry);
+            FileUtils.deleteQuietly(evictedEntry);
+        }
+    }
+
+    /**
+     * A RAML model along with the digests of the resources it includes.
+     */
+    private static class CachedModel {
+
+        private final Map<String, String> includedResourceDigests;
+        private final Raml raml;
+
+        CachedModel(final Map<String, String> includedResourceDigests, final Raml raml) {
+            this.includedResourceDigests = includedResourceDigests;
+            this.raml = raml;
+        }
+
+        boolean isUpToDate(final String ramlLocation, final ResourceLoader resourceLoader) throws IOException {
+            for (final Entry<String, String> includedResourceDigest : includedResourceDigests.entrySet()) {
+                final String resourceName = includedResourceDigest.getKey();
+                if (!includedResourceDigest.getValue().equals(digest(resourceName, resourceLoader))) {
+                    LOGGER.debug("Included resource " + resourceName + " has changed, not using cached model of "
+                            + ramlLocation);
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Only deserializes the classes a RAML model is made of.
+     */
+    private static class RamlModelInputStream extends ObjectInputStream {
+
+        RamlModelInputStream(final InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass description) throws IOException,
+                ClassNotFoundException {
+            final String className = description.getName();
+            for (final String allowedClassPrefix : ALLOWED_CLASS_PREFIXES) {
+                if (className.startsWith(allowedClassPrefix)) {
+                    return Class.forName(className, false, Raml.class.getClassLoader());
+                }
+            }
+            throw new InvalidClassException(className, "not part of a RAML model");
+        }
+    }
+}
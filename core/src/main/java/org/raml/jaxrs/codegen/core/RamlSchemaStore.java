@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jsonschema2pojo.Schema;
+import org.jsonschema2pojo.SchemaStore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JType;
+
+/**
+ * Resolves the references of JSON schemas to the global schemas of a RAML definition by their
+ * name, like <code>"$ref": "product"</code>, which are only held in memory. Other references are
+ * resolved as usual, against the schema location.
+ * <p>
+ * The classes generated for the resolved schemas can be moved to another code model, so they are
+ * referenced instead of being generated again.
+ * @author JAshe
+ */
+class RamlSchemaStore extends SchemaStore {
+
+    private static final String RAML_SCHEMA_SCHEME = "raml-schema";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<String, String> globalSchemas;
+    private final Map<String, Schema> resolvedSchemas;
+    private final Set<Schema> createdSchemas;
+
+    RamlSchemaStore(final Map<String, String> globalSchemas) {
+        this.globalSchemas = globalSchemas;
+
+        resolvedSchemas = new HashMap<String, Schema>();
+        createdSchemas = new HashSet<Schema>();
+    }
+
+    @Override
+    public synchronized Schema create(final URI id) {
+        final Schema schema = super.create(id);
+        createdSchemas.add(schema);
+        return schema;
+    }
+
+    @Override
+    public synchronized Schema create(final Schema parent, final String path) {
+        final String globalSchema = globalSchemas.get(path);
+        if (globalSchema == null) {
+            return super.create(parent, path);
+        }
+
+        // keep one schema per name, so its class is only generated once
+        Schema schema = resolvedSchemas.get(path);
+        if (schema == null) {
+            try {
+                schema = new Schema(new URI(RAML_SCHEMA_SCHEME, path, null), OBJECT_MAPPER.readTree(globalSchema));
+            } catch (final URISyntaxException urise) {
+                throw new IllegalArgumentException("Invalid schema name: " + path, urise);
+            } catch (final IOException ioe) {
+                throw new IllegalArgumentException("Invalid JSON schema: " + path, ioe);
+            }
+            resolvedSchemas.put(path, schema);
+            createdSchemas.add(schema);
+        }
+        return schema;
+    }
+
+    /**
+     * Replaces the classes already generated for the resolved schemas by references to them in
+     * another code model.
+     */
+    synchronized void rebase(final JCodeModel codeModel) {
+        for (final Schema schema : createdSchemas) {
+            final JType javaType = schema.getJavaType();
+            if (javaType != null && javaType.owner() != codeModel) {
+                try {
+                    schema.setJavaType(codeModel.parseType(javaType.fullName()));
+                } catch (final ClassNotFoundException cnfe) {
+                    throw new IllegalStateException("Can't reference type: " + javaType.fullName(), cnfe);
+                }
+            }
+        }
+    }
+}
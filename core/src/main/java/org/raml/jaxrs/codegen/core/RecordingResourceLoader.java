@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.Validate;
+import org.raml.parser.loader.ResourceLoader;
+
+/**
+ * Records the resources (RAML root file and included files) fetched while loading a RAML
+ * definition, along with the digest of their content.
+ * @author JAshe
+ */
+public class RecordingResourceLoader implements ResourceLoader {
+
+    private final ResourceLoader delegate;
+    private final Map<String, String> resourceDigests;
+
+    public RecordingResourceLoader(final ResourceLoader delegate) {
+        Validate.notNull(delegate, "delegate can't be null");
+
+        this.delegate = delegate;
+
+        resourceDigests = new LinkedHashMap<String, String>();
+    }
+
+    @Override
+    public InputStream fetchResource(final String resourceName) {
+        final InputStream resource = delegate.fetchResource(resourceName);
+        if (resource == null) {
+            return null;
+        }
+
+        try {
+            final byte[] content = IOUtils.toByteArray(resource);
+            synchronized (resourceDigests) {
+                resourceDigests.put(resourceName, Digests.digest(content));
+            }
+            return new ByteArrayInputStream(content);
+        } catch (final IOException ioe) {
+            throw new IllegalStateException("Failed to read resource: " + resourceName, ioe);
+        } finally {
+            IOUtils.closeQuietly(resource);
+        }
+    }
+
+    /**
+     * @return the digests of all the resources fetched so far, keyed by resource name, in fetch
+     *         order.
+     */
+    public Map<String, String> getResourceDigests() {
+        synchronized (resourceDigests) {
+            return Collections.unmodifiableMap(new LinkedHashMap<String, String>(resourceDigests));
+        }
+    }
+}
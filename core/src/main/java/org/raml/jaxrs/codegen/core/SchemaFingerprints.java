@@ -0,0 +1,200 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Computes structural fingerprints of JSON schemas: schemas that only differ by formatting, key
+ * order, order of required properties or documentation keywords have the same fingerprint. The
+ * order of properties is kept, as generated classes declare their fields in that order.
+ * @author JAshe
+ */
+public final class SchemaFingerprints {
+
+    // keywords that don't change the shape of generated classes
+    private static final Set<String> IGNORED_KEYWORDS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("$schema", "$comment", "title", "description", "example", "examples")));
+
+    // keywords whose value is a map of names to schemas
+    private static final Set<String> SCHEMA_MAP_KEYWORDS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("properties", "patternProperties", "definitions", "dependencies")));
+
+    // schema map keywords whose order is the order of the generated fields and of their serialization
+    private static final Set<String> ORDERED_SCHEMA_MAP_KEYWORDS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("properties")));
+
+    // keywords whose value is a set of property names, in no meaningful order
+    private static final Set<String> NAME_SET_KEYWORDS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("required")));
+
+    // keywords whose value is plain data, not a schema
+    private static final Set<String> VALUE_KEYWORDS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("enum", "default", "required")));
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // the same schemas are fingerprinted over and over, by all generations
+    private static final int MAX_CACHED_FINGERPRINTS = 10000;
+    private static final ConcurrentMap<String, String> FINGERPRINTS = new ConcurrentHashMap<String, String>();
+
+    /**
+     * @return a SHA-256 based fingerprint of the canonical form of the schema, or of its raw content
+     *         if it isn't a JSON document (for example an XML schema).
+     */
+    public static String compute(final String schema) {
+        String fingerprint = FINGERPRINTS.get(schema);
+        if (fingerprint == null) {
+            if (FINGERPRINTS.size() >= MAX_CACHED_FINGERPRINTS) {
+                FINGERPRINTS.clear();
+            }
+            fingerprint = computeFingerprint(schema);
+            FINGERPRINTS.put(schema, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static String computeFingerprint(final String schema) {
+        final JsonNode schemaNode;
+        try {
+            schemaNode = OBJECT_MAPPER.readTree(schema);
+        } catch (final IOException ioe) {
+            return Digests.digest(schema.trim());
+        }
+
+        if (schemaNode == null) {
+            return Digests.digest(schema.trim());
+        }
+
+        try {
+            return Digests.digest(OBJECT_MAPPER.writeValueAsString(canonicalizeSchema(schemaNode)));
+        } catch (final IOException ioe) {
+            throw new IllegalStateException("Failed to serialize canonical schema", ioe);
+        }
+    }
+
+    private static JsonNode canonicalizeSchema(final JsonNode schemaNode) {
+        if (schemaNode.isArray()) {
+            final ArrayNode canonicalArray = JsonNodeFactory.instance.arrayNode();
+            for (final JsonNode element : schemaNode) {
+                canonicalArray.add(canonicalizeSchema(element));
+            }
+            return canonicalArray;
+        }
+
+        if (!schemaNode.isObject()) {
+            return schemaNode;
+        }
+
+        final ObjectNode canonicalObject = JsonNodeFactory.instance.objectNode();
+        for (final Entry<String, JsonNode> field : sortedFields(schemaNode).entrySet()) {
+            final String keyword = field.getKey();
+            final JsonNode value = field.getValue();
+
+            if (IGNORED_KEYWORDS.contains(keyword)) {
+                continue;
+            } else if (SCHEMA_MAP_KEYWORDS.contains(keyword) && value.isObject()) {
+                final ObjectNode canonicalMap = JsonNodeFactory.instance.objectNode();
+                final Map<String, JsonNode> namedSchemas = ORDERED_SCHEMA_MAP_KEYWORDS.contains(keyword)
+                        ? fields(value) : sortedFields(value);
+                for (final Entry<String, JsonNode> namedSchema : namedSchemas.entrySet()) {
+                    canonicalMap.put(namedSchema.getKey(), canonicalizeSchema(namedSchema.getValue()));
+                }
+                canonicalObject.put(keyword, canonicalMap);
+            } else if (NAME_SET_KEYWORDS.contains(keyword) && value.isArray()) {
+                canonicalObject.put(keyword, canonicalizeNameSet(value));
+            } else if (VALUE_KEYWORDS.contains(keyword)) {
+                canonicalObject.put(keyword, canonicalizeValue(value));
+            } else {
+                canonicalObject.put(keyword, canonicalizeSchema(value));
+            }
+        }
+        return canonicalObject;
+    }
+
+    private static JsonNode canonicalizeValue(final JsonNode valueNode) {
+        if (valueNode.isArray()) {
+            final ArrayNode canonicalArray = JsonNodeFactory.instance.arrayNode();
+            for (final JsonNode element : valueNode) {
+                canonicalArray.add(canonicalizeValue(element));
+            }
+            return canonicalArray;
+        }
+
+        if (!valueNode.isObject()) {
+            return valueNode;
+        }
+
+        final ObjectNode canonicalObject = JsonNodeFactory.instance.objectNode();
+        for (final Entry<String, JsonNode> field : sortedFields(valueNode).entrySet()) {
+            canonicalObject.put(field.getKey(), canonicalizeValue(field.getValue()));
+        }
+        return canonicalObject;
+    }
+
+    private static JsonNode canonicalizeNameSet(final JsonNode namesNode) {
+        final SortedSet<String> names = new TreeSet<String>();
+        for (final JsonNode name : namesNode) {
+            if (!name.isTextual()) {
+                return canonicalizeValue(namesNode);
+            }
+            names.add(name.textValue());
+        }
+
+        final ArrayNode canonicalArray = JsonNodeFactory.instance.arrayNode();
+        for (final String name : names) {
+            canonicalArray.add(name);
+        }
+        return canonicalArray;
+    }
+
+    private static Map<String, JsonNode> fields(final JsonNode objectNode) {
+        final Map<String, JsonNode> fields = new LinkedHashMap<String, JsonNode>();
+        for (final Iterator<Entry<String, JsonNode>> i = objectNode.fields(); i.hasNext();) {
+            final Entry<String, JsonNode> field = i.next();
+            fields.put(field.getKey(), field.getValue());
+        }
+        return fields;
+    }
+
+    private static SortedMap<String, JsonNode> sortedFields(final JsonNode objectNode) {
+        return new TreeMap<String, JsonNode>(fields(objectNode));
+    }
+
+    private SchemaFingerprints() {
+        throw new UnsupportedOperationException();
+    }
+}
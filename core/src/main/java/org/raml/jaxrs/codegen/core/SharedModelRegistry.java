@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Keeps track of the model classes generated from JSON schemas across several generations, so
+ * identical schemas used by different RAML files are generated only once, in a common package, and
+ * referenced from there by all the resources using them.
+ * <p>
+ * All the classes generated in the common package, nested ones included, keep their names, so other
+ * schemas get different ones. Names are assigned in the order schemas are generated: RAML files must
+ * be generated one after the other, in a stable order, for them to be reproducible.
+ * <p>
+ * Instances are thread-safe and meant to be shared by all the {@link Configuration}s generating into
+ * the same output.
+ * @author JAshe
+ */
+public class SharedModelRegistry {
+
+    private final String modelPackageName;
+    private final Map<String, String> typeNamesBySchemaKey;
+    private final Map<String, String> schemaKeysByClassName;
+    private final Map<String, Set<String>> classNamesBySchemaKey;
+
+    public SharedModelRegistry(final String modelPackageName) {
+        Validate.notEmpty(modelPackageName, "modelPackageName can't be empty");
+
+        this.modelPackageName = modelPackageName;
+
+        typeNamesBySchemaKey = new HashMap<String, String>();
+        schemaKeysByClassName = new HashMap<String, String>();
+        classNamesBySchemaKey = new HashMap<String, Set<String>>();
+    }
+
+    public String getModelPackageName() {
+        return modelPackageName;
+    }
+
+    /**
+     * @return a key identifying the schema structure, including its location if it has references
+     *         that are resolved against it.
+     */
+    public String buildSchemaKey(final String jsonSchema, final URI schemaLocation) {
+        final String fingerprint = SchemaFingerprints.compute(jsonSchema);
+
+        return (schemaLocation != null) && jsonSchema.contains("$ref")
+                ? schemaLocation + "@" + fingerprint
+                : fingerprint;
+    }
+
+    /**
+     * @return the name of the type already generated for this schema key, or null if none has been
+     *         generated yet.
+     */
+    public synchronized String getTypeName(final String schemaKey) {
+        return typeNamesBySchemaKey.get(schemaKey);
+    }
+
+    /**
+     * @return a class name, based on the preferred one, that isn't used by a different schema in the
+     *         common model package.
+     */
+    public synchronized String reserveClassName(final String schemaKey, final String preferredClassName) {
+        String actualClassName;
+        int i = -1;
+        while (true) {
+            actualClassName = preferredClassName + (++i == 0 ? "" : Integer.toString(i));
+            final String existingSchemaKey = schemaKeysByClassName.get(actualClassName);
+            if (existingSchemaKey == null) {
+                schemaKeysByClassName.put(actualClassName, schemaKey);
+                return actualClassName;
+            } else if (existingSchemaKey.equals(schemaKey)) {
+                return actualClassName;
+            }
+        }
+    }
+
+    /**
+     * @return the names of all the classes of the common model package reserved so far.
+     */
+    public synchronized Set<String> getClassNames() {
+        return new HashSet<String>(schemaKeysByClassName.keySet());
+    }
+
+    /**
+     * @return the names of the classes of the common model package used by the type generated for
+     *         this schema key, nested and referenced ones included.
+     */
+    public synchronized Set<String> getClassNames(final String schemaKey) {
+        final Set<String> classNames = classNamesBySchemaKey.get(schemaKey);
+        return classNames != null ? new HashSet<String>(classNames) : Collections.<String> emptySet();
+    }
+
+    /**
+     * @return the key of the schema whose generation has created, or reserved, a class of the common
+     *         model package, or null if none has.
+     */
+    public synchronized String getSchemaKey(final String className) {
+        return schemaKeysByClassName.get(className);
+    }
+
+    /**
+     * Registers the type generated for a schema key and the names of the classes of the common model
+     * package it uses, reserving those which aren't yet.
+     */
+    public synchronized void register(final String schemaKey,
+            final String typeName,
+            final Collection<String> classNames) {
+        if (typeNamesBySchemaKey.containsKey(schemaKey)) {
+            return;
+        }
+
+        typeNamesBySchemaKey.put(schemaKey, typeName);
+        classNamesBySchemaKey.put(schemaKey, new HashSet<String>(classNames));
+        for (final String className : classNames) {
+            if (!schemaKeysByClassName.containsKey(className)) {
+                schemaKeysByClassName.put(className, schemaKey);
+            }
+        }
+    }
+}
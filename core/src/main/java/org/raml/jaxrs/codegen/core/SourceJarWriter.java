@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.lang.Validate;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JPackage;
+
+/**
+ * Writes generated sources straight into a single JAR file instead of one file each in an output
+ * directory.
+ * <p>
+ * Several generations, possibly concurrent ones, can share the same JAR: the first entry written
+ * at a path wins. Entries all have the same fixed time, so the same sources always give the same
+ * JAR. The JAR is complete once closed.
+ * @author JAshe
+ */
+public class SourceJarWriter implements Closeable {
+
+    // the earliest time a ZIP entry can hold, in the local time zone like ZIP entry times
+    private static final long ENTRY_TIME = new GregorianCalendar(1980, 0, 1).getTimeInMillis();
+
+    private final File jarFile;
+    private final JarOutputStream jarOutputStream;
+    private final Set<String> entryNames;
+
+    public SourceJarWriter(final File jarFile) throws IOException {
+        Validate.notNull(jarFile, "jarFile can't be null");
+
+        final File parentDirectory = jarFile.getAbsoluteFile().getParentFile();
+        if (!parentDirectory.isDirectory() && !parentDirectory.mkdirs()) {
+            throw new IOException("Failed to create directory: " + parentDirectory);
+        }
+
+        this.jarFile = jarFile;
+        jarOutputStream = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(jarFile)));
+        entryNames = new HashSet<String>();
+    }
+
+    public File getJarFile() {
+        return jarFile;
+    }
+
+    /**
+     * @return a code writer adding the files of a code model to the JAR. Closing it leaves the JAR
+     *         open for other generations.
+     */
+    public CodeWriter newCodeWriter() {
+        return new CodeWriter() {
+            @Override
+            public OutputStream openBinary(final JPackage pkg, final String fileName) throws IOException {
+                final String entryName = pkg.isUnnamed() ? fileName : pkg.name().replace('.', '/') + '/' + fileName;
+
+                // rendered in memory, then added to the JAR at once
+                return new ByteArrayOutputStream() {
+                    @Override
+                    public void close() throws IOException {
+                        addEntry(entryName, buf, count);
+                    }
+                };
+            }
+
+            @Override
+            public void close() throws IOException {
+                // the JAR is closed once all generations are complete
+            }
+        };
+    }
+
+    private synchronized void addEntry(final String entryName, final byte[] content, final int length)
+            throws IOException {
+        if (!entryNames.add(entryName)) {
+            return;
+        }
+
+        final ZipEntry entry = new ZipEntry(entryName);
+        entry.setTime(ENTRY_TIME);
+        jarOutputStream.putNextEntry(entry);
+        jarOutputStream.write(content, 0, length);
+        jarOutputStream.closeEntry();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        jarOutputStream.close();
+    }
+}
@@ -21,12 +21,17 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.math.BigDecimal;
-import java.nio.file.Files;
 import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
 import static javax.ws.rs.core.MediaType.TEXT_XML;
@@ -41,6 +46,8 @@ import static org.apache.commons.lang.StringUtils.substringBefore;
 import org.apache.commons.lang.Validate;
 import static org.apache.commons.lang.WordUtils.capitalize;
 import static org.raml.jaxrs.codegen.core.Names.buildJavaFriendlyName;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Counter;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Phase;
 import static org.raml.jaxrs.codegen.core.Names.buildNestedSchemaName;
 import org.raml.model.MimeType;
 import org.raml.model.parameter.AbstractParam;
@@ -56,14 +63,26 @@ public class Types {
     private static final Logger LOGGER = LoggerFactory.getLogger(Types.class);
 
     private final Context context;
+    private final Types parent;
     private final Map<String, JClass> schemaClasses;
+    private final Set<MimeType> resolvedBodies;
 
     public Types(final Context context) {
+        this(context, null);
+    }
+
+    /**
+     * @param parent when not null, the schema classes it already knows are looked up (and never
+     *            modified) before generating new ones.
+     */
+    public Types(final Context context, final Types parent) {
         Validate.notNull(context, "context can't be null");
 
         this.context = context;
+        this.parent = parent;
 
         schemaClasses = new HashMap<String, JClass>();
+        resolvedBodies = Collections.newSetFromMap(new IdentityHashMap<MimeType, Boolean>());
     }
 
     public JType buildParameterType(final AbstractParam parameter, final String name) throws Exception {
@@ -107,6 +126,92 @@ public class Types {
         }
     }
 
+    /**
+     * @return the class of the elements of a JSON response whose schema is an array, or null if the
+     *         response isn't a JSON array.
+     */
+    public JClass getResponseEntityElementClass(final MimeType mimeType) throws IOException {
+        if (!isCompatibleWith(mimeType, APPLICATION_JSON)) {
+            return null;
+        }
+
+        final JClass schemaClass = getSchemaClass(mimeType);
+        if (schemaClass == null || schemaClass.getTypeParameters().size() != 1
+                || !getGeneratorClass(Collection.class).isAssignableFrom(schemaClass.erasure())) {
+            return null;
+        }
+        return schemaClass.getTypeParameters().get(0);
+    }
+
+    /**
+     * Generates the classes of all the JSON schemas of some request or response bodies up front,
+     * converting them concurrently when more than one thread is used. Each distinct schema gets the
+     * same class name as it would if it was resolved lazily, in the same order.
+     */
+    public void createSchemaClasses(final List<MimeType> mimeTypes, final int threads) throws IOException {
+        if (threads <= 1) {
+            for (final MimeType mimeType : mimeTypes) {
+                getSchemaClass(mimeType);
+            }
+            return;
+        }
+
+        final List<String> schemaKeys = new ArrayList<String>();
+        final Set<String> distinctSchemaKeys = new HashSet<String>();
+        final List<String> classNames = new ArrayList<String>();
+        final List<String> jsonSchemas = new ArrayList<String>();
+        for (final MimeType mimeType : mimeTypes) {
+            if (mimeType == null || isBlank(mimeType.getSchema())
+                    || isCompatibleWith(mimeType, APPLICATION_XML, TEXT_XML)
+                    || !isCompatibleWith(mimeType, APPLICATION_JSON)) {
+                continue;
+            }
+
+            if (!resolvedBodies.add(mimeType)) {
+                continue;
+            }
+
+            final String schemaKey = buildSchemaKey(mimeType);
+            if (getExistingSchemaClass(schemaKey) != null || !distinctSchemaKeys.add(schemaKey)) {
+                // another body has, or will have, the same schema
+                context.getGenerationMetrics().increment(Counter.SCHEMAS_REUSED);
+                continue;
+            }
+
+            final Entry<String, String> schemaAndName = context.getSchema(mimeType.getSchema());
+            schemaKeys.add(schemaKey);
+            classNames.add(buildJavaFriendlyName(isBlank(schemaAndName.getValue())
+                    ? buildNestedSchemaName(mimeType)
+                    : schemaAndName.getValue()));
+            jsonSchemas.add(schemaAndName.getKey());
+        }
+
+        final GenerationMetrics metrics = context.getGenerationMetrics();
+        final long schemasStart = metrics.start();
+        final List<JClass> generatedClasses;
+        try {
+            generatedClasses = context.generateClassesFromJsonSchemas(classNames, jsonSchemas, threads);
+        } finally {
+            metrics.stop(Phase.SCHEMAS, schemasStart);
+        }
+
+        for (int i = 0; i < schemaKeys.size(); i++) {
+            schemaClasses.put(schemaKeys.get(i), generatedClasses.get(i));
+        }
+    }
+
+    /**
+     * References all the schema classes generated so far in the current code model of the context,
+     * so the code model they were generated in can be released once flushed.
+     */
+    public void rebase() {
+        for (final Entry<String, JClass> schemaClass : schemaClasses.entrySet()) {
+            if (schemaClass.getValue().owner() != context.getCodeModel()) {
+                schemaClass.setValue(context.getExistingType(schemaClass.getValue().fullName()));
+            }
+        }
+    }
+
     public JType getGeneratorType(final Class<?> clazz) {
         return context.getGeneratorType(clazz);
     }
@@ -127,8 +232,19 @@ public class Types {
 
         final String buildSchemaKey = buildSchemaKey(mimeType);
 
-        final JClass existingClass = schemaClasses.get(buildSchemaKey);
+        JClass existingClass = getExistingSchemaClass(buildSchemaKey);
         if (existingClass != null) {
+            if (!isResolved(mimeType)) {
+                // only count the first resolution of each body: others are lookups of the same class
+                resolvedBodies.add(mimeType);
+                context.getGenerationMetrics().increment(Counter.SCHEMAS_REUSED);
+            }
+
+            if (existingClass.owner() != context.getCodeModel()) {
+                // generated by the parent, reference it in the current code model
+                existingClass = context.getExistingType(existingClass.fullName());
+                schemaClasses.put(buildSchemaKey, existingClass);
+            }
             return existingClass;
         }
 
@@ -136,23 +252,40 @@ public class Types {
             // TODO support XML schema
             return null;
         } else if (isCompatibleWith(mimeType, APPLICATION_JSON)) {
-            final Entry<File, String> schemaNameAndFile = context.getSchemaFile(schemaNameOrContent);
-            if (isBlank(schemaNameAndFile.getValue())) {
-                schemaNameAndFile.setValue(buildNestedSchemaName(mimeType));
+            final Entry<String, String> schemaAndName = context.getSchema(schemaNameOrContent);
+            if (isBlank(schemaAndName.getValue())) {
+                schemaAndName.setValue(buildNestedSchemaName(mimeType));
             }
 
-            final String className = buildJavaFriendlyName(schemaNameAndFile.getValue());
-            final byte[] encoded = Files.readAllBytes(schemaNameAndFile.getKey().toPath());
-            final String schemaString = new String(encoded, "UTF-8");
-            final JClass generatedClass = context.generateClassFromJsonSchema(className,
-                    schemaString, context.getConfiguration().getSchemaLocation());
+            final String className = buildJavaFriendlyName(schemaAndName.getValue());
+            final GenerationMetrics metrics = context.getGenerationMetrics();
+            final long schemaStart = metrics.start();
+            final JClass generatedClass;
+            try {
+                generatedClass = context.generateClassFromJsonSchema(className, schemaAndName.getKey());
+            } finally {
+                metrics.stop(Phase.SCHEMAS, schemaStart);
+            }
             schemaClasses.put(buildSchemaKey, generatedClass);
+            resolvedBodies.add(mimeType);
             return generatedClass;
         } else {
             return null;
         }
     }
 
+    private JClass getExistingSchemaClass(final String schemaKey) {
+        final JClass existingClass = schemaClasses.get(schemaKey);
+        if (existingClass == null && parent != null) {
+            return parent.schemaClasses.get(schemaKey);
+        }
+        return existingClass;
+    }
+
+    private boolean isResolved(final MimeType mimeType) {
+        return resolvedBodies.contains(mimeType) || (parent != null && parent.resolvedBodies.contains(mimeType));
+    }
+
     private boolean isCompatibleWith(final MimeType mt, final String... mediaTypes) {
         final String mimeType = mt.getType();
 
@@ -181,7 +314,9 @@ public class Types {
     }
 
     private String buildSchemaKey(final MimeType mimeType) {
-        return Names.getShortMimeType(mimeType) + "@" + mimeType.getSchema().hashCode();
+        // schemas with the same structure share the same class, whatever their name or formatting
+        final String schema = context.getSchema(mimeType.getSchema()).getKey();
+        return Names.getShortMimeType(mimeType) + "@" + SchemaFingerprints.compute(schema);
     }
 
     private static Class<?> getJavaType(final AbstractParam parameter) {
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.jsonschema2pojo.AnnotationStyle;
+import org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion;
+import org.raml.jaxrs.codegen.core.GenerationWatcher.ConfigurationFactory;
+
+/**
+ * Command line entry point generating from RAML files and regenerating them whenever they, the
+ * resources they include or their schemas change:
+ *
+ * <pre>
+ * java org.raml.jaxrs.codegen.core.WatchCommand --outputDirectory target/generated-sources/raml-jaxrs
+ *     --basePackageName com.acme.api [options] (ramlFile|ramlDirectory)...
+ * </pre>
+ *
+ * @author JAshe
+ */
+public class WatchCommand {
+
+    private static final String USAGE = "Usage: WatchCommand --outputDirectory <dir> --basePackageName <name>\n"
+            + "    [--jaxrsVersion 1.1|2.0] [--useJsr303Annotations] [--jsonMapper jackson1|jackson2|gson|none]\n"
+            + "    [--schemaLocation <path relative to each RAML file>] [--sharedModelPackageName <name>]\n"
+            + "    [--pollingInterval <ms>] (ramlFile|ramlDirectory)...";
+
+    private static final long DEFAULT_POLLING_INTERVAL = 500L;
+
+    public static void main(final String[] args) throws Exception {
+        final Configuration configuration = new Configuration();
+        String schemaLocation = "./schema/";
+        long pollingInterval = DEFAULT_POLLING_INTERVAL;
+        final List<File> sources = new ArrayList<File>();
+
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if ("--outputDirectory".equals(arg)) {
+                configuration.setOutputDirectory(new File(value(args, ++i)));
+            } else if ("--basePackageName".equals(arg)) {
+                configuration.setBasePackageName(value(args, ++i));
+            } else if ("--jaxrsVersion".equals(arg)) {
+                configuration.setJaxrsVersion(JaxrsVersion.fromAlias(value(args, ++i)));
+            } else if ("--useJsr303Annotations".equals(arg)) {
+                configuration.setUseJsr303Annotations(true);
+            } else if ("--jsonMapper".equals(arg)) {
+                configuration.setJsonMapper(AnnotationStyle.valueOf(value(args, ++i).toUpperCase()));
+            } else if ("--schemaLocation".equals(arg)) {
+                schemaLocation = value(args, ++i);
+            } else if ("--sharedModelPackageName".equals(arg)) {
+                configuration.setSharedModelRegistry(new SharedModelRegistry(value(args, ++i)));
+            } else if ("--pollingInterval".equals(arg)) {
+                pollingInterval = NumberUtils.toLong(value(args, ++i), DEFAULT_POLLING_INTERVAL);
+            } else if (arg.startsWith("--")) {
+                usage("Unknown option: " + arg);
+            } else {
+                sources.add(new File(arg));
+            }
+        }
+
+        if (configuration.getOutputDirectory() == null || configuration.getBasePackageName() == null
+                || sources.isEmpty()) {
+            usage("Missing output directory, base package name or RAML files");
+        }
+
+        FileUtils.forceMkdir(configuration.getOutputDirectory());
+        final String ramlFileSchemaLocation = schemaLocation;
+
+        final GenerationWatcher watcher = new GenerationWatcher(new Generator(),
+                GenerationManifest.load(configuration.getOutputDirectory()));
+
+        final ConfigurationFactory configurationFactory = new ConfigurationFactory() {
+            @Override
+            public Configuration createConfiguration(final File ramlFile) {
+                final Configuration ramlFileConfiguration = new Configuration(configuration);
+                ramlFileConfiguration.setSchemaLocation(new File(ramlFile.getParentFile(), ramlFileSchemaLocation));
+                return ramlFileConfiguration;
+            }
+        };
+
+        for (final File source : sources) {
+            if (source.isDirectory()) {
+                // the RAML files created in it while watching are generated too
+                watcher.addRamlDirectory(source, configurationFactory);
+            } else {
+                watcher.addRamlFile(source, configurationFactory.createConfiguration(source));
+            }
+        }
+
+        watcher.watch(pollingInterval);
+    }
+
+    private static String value(final String[] args, final int index) {
+        if (index >= args.length) {
+            usage("Missing value for: " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static void usage(final String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(1);
+    }
+
+    private WatchCommand() {
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GenerationManifestTestCase
+{
+    private static final String ITEMS_RESOURCE = "/items:\n  get:\n    responses:\n      200:\n"
+        + "        description: OK\n";
+    private static final String ORDERS_RESOURCE = "/orders:\n  get:\n    responses:\n      200:\n"
+        + "        description: OK\n";
+    private static final String PARTS_RESOURCE = "/parts:\n  get:\n    responses:\n      200:\n"
+        + "        description: OK\n";
+
+    @Rule
+    public TemporaryFolder sourceFolder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void executionsSharingAnOutputDirectoryOnlyDeleteTheirOwnStaleFiles() throws Exception
+    {
+        final File ordersRamlFile = writeRamlFile("orders.raml", ITEMS_RESOURCE + ORDERS_RESOURCE);
+        final File partsRamlFile = writeRamlFile("parts.raml", PARTS_RESOURCE);
+        generate("orders", ordersRamlFile, "org.raml.jaxrs.test.orders");
+        generate("parts", partsRamlFile, "org.raml.jaxrs.test.parts");
+        final File handWrittenFile = new File(codegenOutputFolder.getRoot(), "org/raml/jaxrs/test/Custom.java");
+        FileUtils.writeStringToFile(handWrittenFile, "package org.raml.jaxrs.test;\nclass Custom {}\n", "UTF-8");
+
+        FileUtils.writeStringToFile(ordersRamlFile, "#%RAML 0.8\ntitle: API\n" + ITEMS_RESOURCE, "UTF-8");
+        generate("orders", ordersRamlFile, "org.raml.jaxrs.test.orders");
+        generate("parts", partsRamlFile, "org.raml.jaxrs.test.parts");
+
+        assertThat(getResourceFile("orders", "Orders").exists(), is(false));
+        assertThat(getResourceFile("orders", "Items").isFile(), is(true));
+        assertThat(getResourceFile("parts", "Parts").isFile(), is(true));
+        assertThat(handWrittenFile.isFile(), is(true));
+    }
+
+    private File writeRamlFile(final String name, final String resources) throws Exception
+    {
+        final File ramlFile = sourceFolder.newFile(name);
+        FileUtils.writeStringToFile(ramlFile, "#%RAML 0.8\ntitle: API\n" + resources, "UTF-8");
+        return ramlFile;
+    }
+
+    /**
+     * Generates a RAML file and records its generated files, like a build execution.
+     */
+    private void generate(final String executionId, final File ramlFile, final String basePackageName)
+        throws Exception
+    {
+        final Configuration configuration = new Configuration();
+        configuration.setOutputDirectory(codegenOutputFolder.getRoot());
+        configuration.setBasePackageName(basePackageName);
+        configuration.setWriteOnlyChangedFiles(true);
+
+        final GenerationManifest manifest = GenerationManifest.load(codegenOutputFolder.getRoot(), executionId);
+        final String ramlFileKey = ramlFile.toURI().toURL().toString();
+        final Set<String> generatedFiles = new Generator().run(ramlFile.toURI().toURL(), configuration);
+        manifest.update(ramlFileKey,
+            new GenerationManifest.Entry(null, Collections.<String>emptySet(), generatedFiles));
+        manifest.retain(Collections.singleton(ramlFileKey));
+        manifest.save();
+    }
+
+    private File getResourceFile(final String executionId, final String name)
+    {
+        return new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/" + executionId + "/resource/" + name + ".java");
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Counter;
+
+import java.io.File;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GenerationMetricsTestCase
+{
+    private static final String RAML_FILE = "/org/raml/schema/same-named-classes.yaml";
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void countsEachBodyReusingASchemaOnce() throws Exception
+    {
+        for (final int schemaThreads : new int[]{1, 4})
+        {
+            final Configuration configuration = createConfiguration(codegenOutputFolder.newFolder());
+            configuration.setSchemaThreads(schemaThreads);
+
+            new Generator().run(getClass().getResource(RAML_FILE), configuration);
+
+            // the wishlist schema is used by two bodies, each one looked up several times
+            final GenerationMetrics metrics = configuration.getGenerationMetrics();
+            assertThat(metrics.getCount(Counter.SCHEMAS_GENERATED), is(4L));
+            assertThat(metrics.getCount(Counter.SCHEMAS_REUSED), is(1L));
+        }
+    }
+
+    @Test
+    public void countsOnlyChangedFilesAsWritten() throws Exception
+    {
+        final File outputDirectory = codegenOutputFolder.newFolder();
+
+        final Configuration firstConfiguration = createConfiguration(outputDirectory);
+        firstConfiguration.setWriteOnlyChangedFiles(true);
+        new Generator().run(getClass().getResource(RAML_FILE), firstConfiguration);
+
+        assertThat(firstConfiguration.getGenerationMetrics().getCount(Counter.FILES_WRITTEN), greaterThan(0L));
+        assertThat(firstConfiguration.getGenerationMetrics().getCount(Counter.BYTES_WRITTEN), greaterThan(0L));
+
+        final Configuration secondConfiguration = createConfiguration(outputDirectory);
+        secondConfiguration.setWriteOnlyChangedFiles(true);
+        new Generator().run(getClass().getResource(RAML_FILE), secondConfiguration);
+
+        assertThat(secondConfiguration.getGenerationMetrics().getCount(Counter.FILES_WRITTEN), is(0L));
+        assertThat(secondConfiguration.getGenerationMetrics().getCount(Counter.BYTES_WRITTEN), is(0L));
+    }
+
+    private Configuration createConfiguration(final File outputDirectory)
+    {
+        final Configuration configuration = new Configuration();
+        configuration.setBasePackageName("org.raml.jaxrs.test.metrics");
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setGenerationMetrics(new GenerationMetrics());
+        return configuration;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GenerationWatcherTestCase
+{
+    private static final String RAML_HEADER = "#%RAML 0.8\ntitle: Watched API\n";
+    private static final String THINGS_RESOURCE = "/things:\n  get:\n    responses:\n      200:\n        description: OK\n";
+    private static final String OTHERS_RESOURCE = "/others:\n  get:\n    responses:\n      200:\n        description: OK\n";
+
+    @Rule
+    public TemporaryFolder sourceFolder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void regeneratesChangedRamlFiles() throws Exception
+    {
+        final File ramlFile = sourceFolder.newFile("watched.raml");
+        FileUtils.writeStringToFile(ramlFile, RAML_HEADER + THINGS_RESOURCE, "UTF-8");
+
+        final Configuration configuration = new Configuration();
+        configuration.setOutputDirectory(codegenOutputFolder.getRoot());
+        configuration.setBasePackageName("org.raml.jaxrs.test.watch");
+
+        final GenerationWatcher watcher = new GenerationWatcher(new Generator(),
+            GenerationManifest.load(codegenOutputFolder.getRoot()));
+        watcher.addRamlFile(ramlFile, configuration);
+
+        assertThat(watcher.generate(), is(empty()));
+        final File thingsFile = new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/watch/resource/Things.java");
+        final File othersFile = new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/watch/resource/Others.java");
+        assertThat(thingsFile.isFile(), is(true));
+        assertThat(othersFile.exists(), is(false));
+
+        assertThat(watcher.regenerateChangedFiles(), is(empty()));
+
+        FileUtils.writeStringToFile(ramlFile, RAML_HEADER + OTHERS_RESOURCE, "UTF-8");
+        // don't depend on the timestamp resolution of the file system
+        ramlFile.setLastModified(ramlFile.lastModified() + 10000L);
+
+        assertThat(watcher.regenerateChangedFiles(), contains(ramlFile.getAbsoluteFile()));
+        assertThat(othersFile.isFile(), is(true));
+        assertThat(thingsFile.exists(), is(false));
+    }
+
+    @Test
+    public void generatesRamlFilesCreatedInWatchedDirectories() throws Exception
+    {
+        final File thingsRamlFile = sourceFolder.newFile("things.raml");
+        FileUtils.writeStringToFile(thingsRamlFile, RAML_HEADER + THINGS_RESOURCE, "UTF-8");
+
+        final GenerationWatcher watcher = new GenerationWatcher(new Generator(),
+            GenerationManifest.load(codegenOutputFolder.getRoot()));
+        watcher.addRamlDirectory(sourceFolder.getRoot(), new GenerationWatcher.ConfigurationFactory()
+        {
+            @Override
+            public Configuration createConfiguration(final File ramlFile)
+            {
+                final Configuration configuration = new Configuration();
+                configuration.setOutputDirectory(codegenOutputFolder.getRoot());
+                configuration.setBasePackageName("org.raml.jaxrs.test.watch."
+                                                 + ramlFile.getName().replace(".", "_"));
+                return configuration;
+            }
+        });
+
+        assertThat(watcher.generate(), is(empty()));
+        assertThat(new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/watch/things_raml/resource/Things.java").isFile(), is(true));
+
+        final File othersRamlFile = new File(sourceFolder.newFolder("more"), "others.yaml");
+        FileUtils.writeStringToFile(othersRamlFile, RAML_HEADER + OTHERS_RESOURCE, "UTF-8");
+        FileUtils.writeStringToFile(sourceFolder.newFile("notes.txt"), "not a RAML file", "UTF-8");
+
+        assertThat(watcher.regenerateChangedFiles(), contains(othersRamlFile.getAbsoluteFile()));
+        assertThat(new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/watch/others_yaml/resource/Others.java").isFile(), is(true));
+
+        // deleted RAML files aren't generated anymore
+        FileUtils.forceDelete(othersRamlFile);
+        assertThat(watcher.regenerateChangedFiles(), is(empty()));
+        assertThat(watcher.generate(), is(empty()));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Counter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion.JAXRS_1_1;
+
+public class GeneratorConcurrencyTestCase
+{
+    private static final String TEST_BASE_PACKAGE = "org.raml.jaxrs.test";
+
+    private static final String[] RAML_FILES = {"/org/raml/full-config-with-patch.yaml",
+        "/org/raml/params/param-types-with-repeat.yaml",
+        "/org/raml/integration/sales-enablement-api-with-collections.yaml"};
+
+    private static final int THREADS = 8;
+    private static final int RUNS_PER_THREAD = 5;
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void concurrentRunsOfOneGeneratorProduceIdenticalOutput() throws Exception
+    {
+        assertConcurrentRunsProduceIdenticalOutput(new Generator(), null, 1, 1);
+    }
+
+    @Test
+    public void concurrentRunsSharingAModelCacheProduceIdenticalOutput() throws Exception
+    {
+        final RamlModelCache ramlModelCache = new RamlModelCache(codegenOutputFolder.newFolder("cache"), 10);
+        final GenerationMetrics metrics = new GenerationMetrics();
+
+        assertConcurrentRunsProduceIdenticalOutput(new Generator(), ramlModelCache, metrics, 4, 4);
+
+        // all the runs but the serial one can read the models it cached
+        assertThat(metrics.getCount(Counter.CACHED_RAML_MODELS),
+            greaterThanOrEqualTo((long) THREADS * RUNS_PER_THREAD * RAML_FILES.length));
+    }
+
+    private void assertConcurrentRunsProduceIdenticalOutput(final Generator generator,
+                                                            final RamlModelCache ramlModelCache,
+                                                            final int schemaThreads,
+                                                            final int resourceThreads) throws Exception
+    {
+        assertConcurrentRunsProduceIdenticalOutput(generator, ramlModelCache, new GenerationMetrics(), schemaThreads,
+            resourceThreads);
+    }
+
+    private void assertConcurrentRunsProduceIdenticalOutput(final Generator generator,
+                                                            final RamlModelCache ramlModelCache,
+                                                            final GenerationMetrics metrics,
+                                                            final int schemaThreads,
+                                                            final int resourceThreads) throws Exception
+    {
+        final Map<String, String> expectedSources = run(generator, ramlModelCache, metrics, schemaThreads,
+            resourceThreads, codegenOutputFolder.newFolder("serial"));
+        assertThat(expectedSources.isEmpty(), is(false));
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        try
+        {
+            final List<Future<List<Map<String, String>>>> results = new ArrayList<Future<List<Map<String, String>>>>();
+            for (int i = 0; i < THREADS; i++)
+            {
+                final String threadName = "thread-" + i;
+                results.add(executorService.submit(new Callable<List<Map<String, String>>>()
+                {
+                    @Override
+                    public List<Map<String, String>> call() throws Exception
+                    {
+                        start.await();
+
+                        final List<Map<String, String>> sources = new ArrayList<Map<String, String>>();
+                        for (int j = 0; j < RUNS_PER_THREAD; j++)
+                        {
+                            sources.add(run(generator, ramlModelCache, metrics, schemaThreads, resourceThreads,
+                                codegenOutputFolder.newFolder(threadName + "-" + j)));
+                        }
+                        return sources;
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (final Future<List<Map<String, String>>> result : results)
+            {
+                for (final Map<String, String> sources : result.get())
+                {
+                    assertThat(sources.keySet(), equalTo(expectedSources.keySet()));
+                    for (final Map.Entry<String, String> source : sources.entrySet())
+                    {
+                        assertThat(source.getKey(), source.getValue(),
+                            equalTo(expectedSources.get(source.getKey())));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    private Map<String, String> run(final Generator generator,
+                                    final RamlModelCache ramlModelCache,
+                                    final GenerationMetrics metrics,
+                                    final int schemaThreads,
+                                    final int resourceThreads,
+                                    final File outputDirectory) throws Exception
+    {
+        final Configuration configuration = new Configuration();
+        configuration.setJaxrsVersion(JAXRS_1_1);
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setRamlModelCache(ramlModelCache);
+        configuration.setGenerationMetrics(metrics);
+        configuration.setSchemaThreads(schemaThreads);
+        configuration.setResourceThreads(resourceThreads);
+
+        for (int i = 0; i < RAML_FILES.length; i++)
+        {
+            configuration.setBasePackageName(TEST_BASE_PACKAGE + ".concurrency" + i);
+            generator.run(getClass().getResource(RAML_FILES[i]), configuration);
+        }
+
+        final Map<String, String> sources = new TreeMap<String, String>();
+        final Collection<File> files = FileUtils.listFiles(outputDirectory, null, true);
+        for (final File file : files)
+        {
+            final String path = file.getAbsolutePath().substring(outputDirectory.getAbsolutePath().length());
+            sources.put(path, FileUtils.readFileToString(file, "UTF-8"));
+        }
+        return sources;
+    }
+}
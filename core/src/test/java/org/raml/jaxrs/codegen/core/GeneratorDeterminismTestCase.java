@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GeneratorDeterminismTestCase
+{
+    private static final String TEST_BASE_PACKAGE = "org.raml.jaxrs.test";
+
+    private static final String[] RAML_FILES = {"/org/raml/full-config-with-patch.yaml",
+        "/org/raml/params/param-types-with-repeat.yaml",
+        "/org/raml/integration/sales-enablement-api-with-collections.yaml"};
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void generationsInSeparateClassLoadersAreByteIdentical() throws Exception
+    {
+        final Map<String, byte[]> firstSources = runInSeparateClassLoader(codegenOutputFolder.newFolder("first"));
+        final Map<String, byte[]> secondSources = runInSeparateClassLoader(codegenOutputFolder.newFolder("second"));
+
+        assertThat(firstSources.isEmpty(), is(false));
+        assertThat(secondSources.keySet(), equalTo(firstSources.keySet()));
+        for (final Map.Entry<String, byte[]> source : firstSources.entrySet())
+        {
+            assertThat(source.getKey(), Arrays.equals(source.getValue(), secondSources.get(source.getKey())),
+                is(true));
+        }
+    }
+
+    /**
+     * Generates with freshly loaded generator classes, so neither static caches nor identity hash
+     * codes are shared with other generations.
+     */
+    private Map<String, byte[]> runInSeparateClassLoader(final File outputDirectory) throws Exception
+    {
+        final List<URL> classPath = new ArrayList<URL>();
+        for (final String entry : System.getProperty("java.class.path").split(File.pathSeparator))
+        {
+            classPath.add(new File(entry).toURI().toURL());
+        }
+
+        final ClassLoader classLoader = new URLClassLoader(classPath.toArray(new URL[classPath.size()]),
+            ClassLoader.getSystemClassLoader().getParent());
+
+        final ClassLoader initialClassLoader = Thread.currentThread().getContextClassLoader();
+        try
+        {
+            Thread.currentThread().setContextClassLoader(classLoader);
+
+            final Class<?> configurationClass = classLoader.loadClass(Configuration.class.getName());
+            final Class<?> jaxrsVersionClass = classLoader.loadClass(Configuration.JaxrsVersion.class.getName());
+            final Class<?> generatorClass = classLoader.loadClass(Generator.class.getName());
+            assertThat(generatorClass, not(equalTo((Object) Generator.class)));
+
+            final Object generator = generatorClass.newInstance();
+            for (int i = 0; i < RAML_FILES.length; i++)
+            {
+                final Object configuration = configurationClass.newInstance();
+                configurationClass.getMethod("setOutputDirectory", File.class).invoke(configuration,
+                    outputDirectory);
+                configurationClass.getMethod("setBasePackageName", String.class).invoke(configuration,
+                    TEST_BASE_PACKAGE + ".determinism" + i);
+                configurationClass.getMethod("setJaxrsVersion", jaxrsVersionClass).invoke(configuration,
+                    jaxrsVersionClass.getMethod("valueOf", String.class).invoke(null, "JAXRS_1_1"));
+
+                generatorClass.getMethod("run", URL.class, configurationClass).invoke(generator,
+                    getClass().getResource(RAML_FILES[i]), configuration);
+            }
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(initialClassLoader);
+        }
+
+        final Map<String, byte[]> sources = new TreeMap<String, byte[]>();
+        for (final File file : FileUtils.listFiles(outputDirectory, null, true))
+        {
+            final String path = file.getAbsolutePath().substring(outputDirectory.getAbsolutePath().length());
+            sources.put(path, FileUtils.readFileToByteArray(file));
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion.JAXRS_1_1;
+
+/**
+ * Checks that the options changing how the generation is carried out don't change what is generated.
+ */
+public class GeneratorEquivalenceTestCase
+{
+    private static final String TEST_BASE_PACKAGE = "org.raml.jaxrs.test.equivalence";
+
+    private static final String SAME_NAMED_CLASSES_RAML_FILE = "/org/raml/schema/same-named-classes.yaml";
+
+    private static final String[] RAML_FILES = {"/org/raml/full-config-with-patch.yaml",
+        "/org/raml/integration/sales-enablement-api-with-collections.yaml", SAME_NAMED_CLASSES_RAML_FILE};
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void sameNamedClassesOfDifferentShapesAreAllGenerated() throws Exception
+    {
+        final Map<String, byte[]> sources = generate(SAME_NAMED_CLASSES_RAML_FILE,
+            createConfiguration(codegenOutputFolder.newFolder("serial")));
+
+        final StringBuilder modelSources = new StringBuilder();
+        for (final Map.Entry<String, byte[]> source : sources.entrySet())
+        {
+            if (source.getKey().contains("model"))
+            {
+                modelSources.append(new String(source.getValue(), "UTF-8"));
+            }
+        }
+        assertThat(modelSources.toString(), containsString("getSku()"));
+        assertThat(modelSources.toString(), containsString("getName()"));
+        assertThat(modelSources.toString(), containsString("getQuantity()"));
+    }
+
+    @Test
+    public void streamingGenerationProducesTheSameOutput() throws Exception
+    {
+        for (final String ramlFile : RAML_FILES)
+        {
+            final Configuration configuration = createConfiguration(codegenOutputFolder.newFolder());
+            configuration.setStreamingGeneration(true);
+
+            assertSameOutput(ramlFile, configuration);
+        }
+    }
+
+    @Test
+    public void concurrentSchemaGenerationProducesTheSameOutput() throws Exception
+    {
+        for (final String ramlFile : RAML_FILES)
+        {
+            final Configuration configuration = createConfiguration(codegenOutputFolder.newFolder());
+            configuration.setSchemaThreads(4);
+
+            assertSameOutput(ramlFile, configuration);
+        }
+    }
+
+    @Test
+    public void concurrentResourceGenerationProducesTheSameOutput() throws Exception
+    {
+        for (final String ramlFile : RAML_FILES)
+        {
+            final Configuration configuration = createConfiguration(codegenOutputFolder.newFolder());
+            configuration.setResourceThreads(4);
+
+            assertSameOutput(ramlFile, configuration);
+        }
+    }
+
+    @Test
+    public void concurrentResourceAndSchemaGenerationProducesTheSameOutput() throws Exception
+    {
+        for (final String ramlFile : RAML_FILES)
+        {
+            final Configuration configuration = createConfiguration(codegenOutputFolder.newFolder());
+            configuration.setResourceThreads(4);
+            configuration.setSchemaThreads(4);
+
+            assertSameOutput(ramlFile, configuration);
+        }
+    }
+
+    private void assertSameOutput(final String ramlFile, final Configuration configuration) throws Exception
+    {
+        final Map<String, byte[]> expectedSources = generate(ramlFile,
+            createConfiguration(codegenOutputFolder.newFolder()));
+        final Map<String, byte[]> sources = generate(ramlFile, configuration);
+
+        assertThat(expectedSources.isEmpty(), is(false));
+        assertThat(ramlFile, sources.keySet(), equalTo(expectedSources.keySet()));
+        for (final Map.Entry<String, byte[]> source : sources.entrySet())
+        {
+            assertThat(source.getKey(), Arrays.equals(source.getValue(), expectedSources.get(source.getKey())),
+                is(true));
+        }
+    }
+
+    private Configuration createConfiguration(final File outputDirectory)
+    {
+        final Configuration configuration = new Configuration();
+        configuration.setJaxrsVersion(JAXRS_1_1);
+        configuration.setBasePackageName(TEST_BASE_PACKAGE);
+        configuration.setOutputDirectory(outputDirectory);
+        return configuration;
+    }
+
+    private Map<String, byte[]> generate(final String ramlFile, final Configuration configuration)
+        throws Exception
+    {
+        new Generator().run(getClass().getResource(ramlFile), configuration);
+
+        final File outputDirectory = configuration.getOutputDirectory();
+        final Map<String, byte[]> sources = new TreeMap<String, byte[]>();
+        for (final File file : FileUtils.listFiles(outputDirectory, null, true))
+        {
+            final String path = file.getAbsolutePath().substring(outputDirectory.getAbsolutePath().length());
+            sources.put(path, FileUtils.readFileToByteArray(file));
+        }
+        return sources;
+    }
+}
@@ -17,25 +17,30 @@ package org.raml.jaxrs.codegen.core;
 
 import com.sun.jersey.api.core.PackagesResourceConfig;
 import com.sun.jersey.api.core.ResourceConfig;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.jci.compilers.CompilationResult;
 import org.apache.commons.jci.compilers.JavaCompiler;
 import org.apache.commons.jci.compilers.JavaCompilerFactory;
 import org.apache.commons.jci.compilers.JavaCompilerSettings;
 import org.apache.commons.jci.readers.FileResourceReader;
 import org.apache.commons.jci.stores.FileResourceStore;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
-import org.junit.Ignore;
+import org.jsonschema2pojo.AnnotationStyle;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion;
 
+import java.io.File;
+import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import javax.ws.rs.core.Response;
 
 import static org.apache.commons.lang.ArrayUtils.EMPTY_STRING_ARRAY;
 import static org.hamcrest.Matchers.*;
@@ -46,6 +51,7 @@ import static org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion.JAXRS_2_0;
 public class GeneratorTestCase
 {
     private static final String TEST_BASE_PACKAGE = "org.raml.jaxrs.test";
+    private static final String JAXRS_2_0_API_JAR_PROPERTY = "jaxrs20ApiJar";
 
     @Rule
     public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
@@ -65,28 +71,215 @@ public class GeneratorTestCase
         run(JAXRS_1_1, true);
     }*/
 
-    @Ignore("Can only be run with JAX-RS 2.0 API on classpath")
     @Test
     public void runForJaxrs20WithoutJsr303() throws Exception
     {
         run(JAXRS_2_0, false);
     }
 
-    @Ignore("Can only be run with JAX-RS 2.0 API on classpath")
     @Test
     public void runForJaxrs20WithJsr303() throws Exception
     {
         run(JAXRS_2_0, true);
     }
 
+    @Test
+    public void runWithMediaTypeConstantsForJaxrs11() throws Exception
+    {
+        runWithMediaTypeConstants(JAXRS_1_1);
+    }
+
+    @Test
+    public void runWithMediaTypeConstantsForJaxrs20() throws Exception
+    {
+        runWithMediaTypeConstants(JAXRS_2_0);
+    }
+
+    @Test
+    public void runWithLightweightResponsesForJaxrs11() throws Exception
+    {
+        runWithLightweightResponses(JAXRS_1_1);
+    }
+
+    @Test
+    public void runWithLightweightResponsesForJaxrs20() throws Exception
+    {
+        runWithLightweightResponses(JAXRS_2_0);
+    }
+
+    private void runWithLightweightResponses(final JaxrsVersion jaxrsVersion) throws Exception
+    {
+        final Configuration configuration = createConfiguration(jaxrsVersion, false);
+        configuration.setLightweightResponses(true);
+        run(configuration);
+
+        // response headers are set through the support class instead of the response wrapper
+        final File supportFolder = new File(codegenOutputFolder.getRoot(), "org/raml/jaxrs/test/support");
+        assertThat(new File(supportFolder, "ResponseHeaders.java").isFile(), is(true));
+        assertThat(new File(supportFolder, "ResponseWrapper.java").exists(), is(false));
+    }
+
+    @Test
+    public void runWithCachedResponsesForJaxrs11() throws Exception
+    {
+        final String mediaCollection = runWithCachedResponses(JAXRS_1_1);
+
+        // the 404 response of POST /media has neither entity nor headers
+        assertThat(mediaCollection, containsString("private static volatile"));
+        assertThat(mediaCollection, containsString("if (response == null) {"));
+
+        // filters adding headers to a returned response don't change the next ones
+        final URLClassLoader resourceClassLoader = new URLClassLoader(
+            new URL[]{compilationOutputFolder.getRoot().toURI().toURL()}, getClass().getClassLoader());
+        final Method responseNotFound = getNotFoundFactory(
+            resourceClassLoader.loadClass(TEST_BASE_PACKAGE + ".resource.MediaCollection"));
+
+        final Response response = (Response) responseNotFound.invoke(null);
+        response.getMetadata().add("Set-Cookie", "session=1");
+        final Response nextResponse = (Response) responseNotFound.invoke(null);
+
+        assertThat(nextResponse, is(not(sameInstance(response))));
+        assertThat(nextResponse.getStatus(), is(404));
+        assertThat(nextResponse.getMetadata().containsKey("Set-Cookie"), is(false));
+    }
+
+    private static Method getNotFoundFactory(final Class<?> resourceInterface) throws Exception
+    {
+        for (final Class<?> responseClass : resourceInterface.getDeclaredClasses())
+        {
+            for (final Method method : responseClass.getDeclaredMethods())
+            {
+                if (method.getName().equals("responseNotFound") && (method.getParameterTypes().length == 0))
+                {
+                    return method;
+                }
+            }
+        }
+        throw new AssertionError("No responseNotFound() factory in: " + resourceInterface);
+    }
+
+    @Test
+    public void runWithCachedResponsesForJaxrs20() throws Exception
+    {
+        final String mediaCollection = runWithCachedResponses(JAXRS_2_0);
+
+        // JAX-RS 2.0 responses are stateful, so they are still built for each call
+        assertThat(mediaCollection, not(containsString("private static volatile")));
+        assertThat(mediaCollection, not(containsString("if (response == null) {")));
+    }
+
+    private String runWithCachedResponses(final JaxrsVersion jaxrsVersion) throws Exception
+    {
+        final Configuration configuration = createConfiguration(jaxrsVersion, false);
+        configuration.setCachedResponses(true);
+        run(configuration);
+
+        return FileUtils.readFileToString(new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/resource/MediaCollection.java"), "UTF-8");
+    }
+
+    @Test
+    public void runWithAsyncResponsesForJaxrs20() throws Exception
+    {
+        final Configuration configuration = createConfiguration(JAXRS_2_0, false);
+        configuration.setAsyncResponses(true);
+        run(configuration);
+
+        configuration.setBasePackageName(TEST_BASE_PACKAGE + ".async");
+        final Set<String> generatedSources = new Generator().run(
+            getClass().getResource("/org/raml/async-responses.yaml"), configuration);
+        compile(generatedSources, JAXRS_2_0);
+
+        final String things = FileUtils.readFileToString(new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/async/resource/Things.java"), "UTF-8");
+        assertThat(things, containsString("AsyncResponse asyncResponse);"));
+        // the suspended response doesn't clash with a RAML parameter of the same name
+        assertThat(things, containsString("Boolean asyncResponse,"));
+        assertThat(things, containsString("AsyncResponse asyncResponse1);"));
+    }
+
+    @Test
+    public void runWithStreamingArrayResponsesForJackson1() throws Exception
+    {
+        runWithStreamingArrayResponses(AnnotationStyle.JACKSON1, "org.codehaus.jackson.map.ObjectMapper");
+    }
+
+    @Test
+    public void runWithStreamingArrayResponsesForJackson2() throws Exception
+    {
+        runWithStreamingArrayResponses(AnnotationStyle.JACKSON2, "com.fasterxml.jackson.databind.ObjectMapper");
+    }
+
+    @Test
+    public void runWithStreamingArrayResponsesForGson() throws Exception
+    {
+        runWithStreamingArrayResponses(AnnotationStyle.GSON, "com.google.gson.Gson");
+    }
+
+    private void runWithStreamingArrayResponses(final AnnotationStyle jsonMapper, final String mapperClass)
+        throws Exception
+    {
+        final Configuration configuration = createConfiguration(JAXRS_2_0, false);
+        configuration.setJsonMapper(jsonMapper);
+        configuration.setStreamingArrayResponses(true);
+        run(configuration);
+
+        configuration.setBasePackageName(TEST_BASE_PACKAGE + ".streaming");
+        final Set<String> generatedSources = new Generator().run(
+            getClass().getResource("/org/raml/streaming-arrays.yaml"), configuration);
+        compile(generatedSources, JAXRS_2_0);
+
+        final String items = FileUtils.readFileToString(new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/streaming/resource/Items.java"), "UTF-8");
+        assertThat(items, containsString("jsonOKStreaming(Iterator<? extends"));
+        final String jsonArrayOutput = FileUtils.readFileToString(new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/streaming/support/JsonArrayOutput.java"), "UTF-8");
+        assertThat(jsonArrayOutput, containsString("import " + mapperClass + ";"));
+    }
+
+    private void runWithMediaTypeConstants(final JaxrsVersion jaxrsVersion) throws Exception
+    {
+        final Configuration configuration = createConfiguration(jaxrsVersion, false);
+        configuration.setMediaTypeConstants(true);
+        run(configuration);
+
+        configuration.setBasePackageName(TEST_BASE_PACKAGE + ".mediatypes");
+        final Set<String> generatedSources = new Generator().run(
+            getClass().getResource("/org/raml/media-types.yaml"), configuration);
+        compile(generatedSources, jaxrsVersion);
+
+        final String things = FileUtils.readFileToString(new File(codegenOutputFolder.getRoot(),
+            "org/raml/jaxrs/test/mediatypes/resource/Things.java"), "UTF-8");
+        // the JAX-RS constants are used when they exist
+        assertThat(things, containsString(".type(MediaType.APPLICATION_JSON_TYPE)"));
+        assertThat(things, not(containsString("MediaType.valueOf(\"application/json\")")));
+        // other media types are parsed once per response class, even when used by several responses
+        assertThat(StringUtils.countMatches(things, "MediaType.valueOf(\"application/hal+json\")"), is(1));
+        assertThat(StringUtils.countMatches(things, ".type(APPLICATION_HAL_JSON_TYPE)"), is(2));
+        // and media types with the same constant name get unique ones
+        assertThat(things,
+            containsString("APPLICATION_VND_ACME_JSON_TYPE = MediaType.valueOf(\"application/vnd.acme+json\")"));
+        assertThat(things,
+            containsString("APPLICATION_VND_ACME_JSON_TYPE1 = MediaType.valueOf(\"application/vnd-acme+json\")"));
+    }
+
     private void run(final JaxrsVersion jaxrsVersion, final boolean useJsr303Annotations) throws Exception
     {
-        final Set<String> generatedSources = new HashSet<String>();
+        run(createConfiguration(jaxrsVersion, useJsr303Annotations));
+    }
 
+    private Configuration createConfiguration(final JaxrsVersion jaxrsVersion, final boolean useJsr303Annotations)
+    {
         final Configuration configuration = new Configuration();
         configuration.setJaxrsVersion(jaxrsVersion);
         configuration.setUseJsr303Annotations(useJsr303Annotations);
         configuration.setOutputDirectory(codegenOutputFolder.getRoot());
+        return configuration;
+    }
+
+    private void run(final Configuration configuration) throws Exception
+    {
+        final Set<String> generatedSources = new HashSet<String>();
 
         configuration.setBasePackageName(TEST_BASE_PACKAGE);
         generatedSources.addAll(new Generator().run(
@@ -122,6 +315,37 @@ public class GeneratorTestCase
             getClass().getResource("/org/raml/schema/valid-xml.yaml"),
             configuration));
 
+        compile(generatedSources, configuration.getJaxrsVersion());
+
+        if (configuration.getJaxrsVersion() != JAXRS_1_1)
+        {
+            // Jersey 1 only implements JAX-RS 1.1
+            return;
+        }
+
+        // test load the classes with Jersey
+        final URLClassLoader resourceClassLoader = new URLClassLoader(
+            new URL[]{compilationOutputFolder.getRoot().toURI().toURL()});
+
+        final ClassLoader initialClassLoader = Thread.currentThread().getContextClassLoader();
+        try
+        {
+            Thread.currentThread().setContextClassLoader(resourceClassLoader);
+            final ResourceConfig config = new PackagesResourceConfig(TEST_BASE_PACKAGE);
+
+            assertThat("Found: " + config.getRootResourceClasses(), config.getRootResourceClasses(),
+                hasSize(13));
+
+            // TODO testing: actually send HTTP requests at the resources
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(initialClassLoader);
+        }
+    }
+
+    private void compile(final Set<String> generatedSources, final JaxrsVersion jaxrsVersion) throws Exception
+    {
         // test compile the classes
         final JavaCompiler compiler = new JavaCompilerFactory().createCompiler("eclipse");
 
@@ -136,7 +360,7 @@ public class GeneratorTestCase
         final FileResourceReader sourceReader = new FileResourceReader(codegenOutputFolder.getRoot());
         final FileResourceStore classWriter = new FileResourceStore(compilationOutputFolder.getRoot());
         final CompilationResult result = compiler.compile(sources, sourceReader, classWriter,
-            Thread.currentThread().getContextClassLoader(), settings);
+            getCompilationClassLoader(jaxrsVersion), settings);
 
         assertThat(ToStringBuilder.reflectionToString(result.getErrors(), ToStringStyle.SHORT_PREFIX_STYLE),
             result.getErrors(), is(emptyArray()));
@@ -144,25 +368,69 @@ public class GeneratorTestCase
         assertThat(
             ToStringBuilder.reflectionToString(result.getWarnings(), ToStringStyle.SHORT_PREFIX_STYLE),
             result.getWarnings(), is(emptyArray()));
+    }
 
-        // test load the classes with Jersey
-        final URLClassLoader resourceClassLoader = new URLClassLoader(
-            new URL[]{compilationOutputFolder.getRoot().toURI().toURL()});
+    /**
+     * @return a class loader with the API of a JAX-RS version: the JAX-RS 2.0 one can't be on the
+     *         test class path, along with the JAX-RS 1.1 one that Jersey 1 requires.
+     */
+    private static ClassLoader getCompilationClassLoader(final JaxrsVersion jaxrsVersion) throws Exception
+    {
+        final ClassLoader testClassLoader = Thread.currentThread().getContextClassLoader();
+        if (jaxrsVersion == JAXRS_1_1)
+        {
+            return testClassLoader;
+        }
 
-        final ClassLoader initialClassLoader = Thread.currentThread().getContextClassLoader();
-        try
+        final String jaxrs20ApiJar = System.getProperty(JAXRS_2_0_API_JAR_PROPERTY);
+        assertThat("The " + JAXRS_2_0_API_JAR_PROPERTY + " system property must locate the JAX-RS 2.0 API JAR",
+            jaxrs20ApiJar, is(notNullValue()));
+
+        return new JaxrsApiClassLoader(new File(jaxrs20ApiJar).toURI().toURL(), testClassLoader);
+    }
+
+    /**
+     * Loads the JAX-RS API from its own JAR before its parent.
+     */
+    private static class JaxrsApiClassLoader extends URLClassLoader
+    {
+        private static final String JAXRS_PACKAGE = "javax.ws.rs.";
+
+        JaxrsApiClassLoader(final URL jaxrsApiJar, final ClassLoader parent)
         {
-            Thread.currentThread().setContextClassLoader(resourceClassLoader);
-            final ResourceConfig config = new PackagesResourceConfig(TEST_BASE_PACKAGE);
+            super(new URL[]{jaxrsApiJar}, parent);
+        }
 
-            assertThat("Found: " + config.getRootResourceClasses(), config.getRootResourceClasses(),
-                hasSize(13));
+        @Override
+        protected synchronized Class<?> loadClass(final String name, final boolean resolve)
+            throws ClassNotFoundException
+        {
+            if (!name.startsWith(JAXRS_PACKAGE))
+            {
+                return super.loadClass(name, resolve);
+            }
 
-            // TODO testing: actually send HTTP requests at the resources
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null)
+            {
+                loadedClass = findClass(name);
+            }
+            if (resolve)
+            {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
         }
-        finally
+
+        @Override
+        public URL getResource(final String name)
         {
-            Thread.currentThread().setContextClassLoader(initialClassLoader);
+            if (name.startsWith(JAXRS_PACKAGE.replace('.', '/')))
+            {
+                // the JAX-RS 1.1 classes missing from the JAX-RS 2.0 API don't exist
+                return findResource(name);
+            }
+            return super.getResource(name);
         }
     }
 }
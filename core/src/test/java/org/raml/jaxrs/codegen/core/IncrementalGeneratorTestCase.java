@@ -0,0 +1,249 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class IncrementalGeneratorTestCase
+{
+    private static final String MARKER = "// not regenerated";
+
+    private static final String RAML_HEADER = "#%RAML 0.8\ntitle: Incremental API\nschemas:\n"
+        + "  - item: !include item-schema.json\n";
+    private static final String ITEMS_RESOURCE = "/items:\n  get:\n    responses:\n      200:\n        body:\n"
+        + "          application/json:\n            schema: item\n";
+    private static final String ORDERS_RESOURCE = "/orders:\n  get:\n    responses:\n      200:\n"
+        + "        description: OK\n";
+    private static final String ITEM_SCHEMA = "{ \"type\": \"object\", \"properties\": {"
+        + " \"name\": { \"type\": \"string\" }, \"address\": { \"$ref\": \"address.json\" } } }";
+    private static final String ADDRESS_SCHEMA = "{ \"type\": \"object\", \"properties\": {"
+        + " \"street\": { \"type\": \"string\" } } }";
+
+    @Rule
+    public TemporaryFolder sourceFolder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    private File ramlFile;
+    private File itemSchemaFile;
+    private File addressSchemaFile;
+    private Configuration configuration;
+
+    @Before
+    public void createRamlFiles() throws Exception
+    {
+        ramlFile = sourceFolder.newFile("incremental.raml");
+        FileUtils.writeStringToFile(ramlFile, RAML_HEADER + ITEMS_RESOURCE + ORDERS_RESOURCE, "UTF-8");
+        itemSchemaFile = sourceFolder.newFile("item-schema.json");
+        FileUtils.writeStringToFile(itemSchemaFile, ITEM_SCHEMA, "UTF-8");
+
+        final File schemaFolder = sourceFolder.newFolder("schemas");
+        addressSchemaFile = new File(schemaFolder, "address.json");
+        FileUtils.writeStringToFile(addressSchemaFile, ADDRESS_SCHEMA, "UTF-8");
+
+        configuration = new Configuration();
+        configuration.setOutputDirectory(codegenOutputFolder.getRoot());
+        configuration.setBasePackageName("org.raml.jaxrs.test.incremental");
+        configuration.setSchemaLocation(schemaFolder);
+    }
+
+    @Test
+    public void skipsUnchangedRamlFiles() throws Exception
+    {
+        final Set<String> generatedFiles = generate();
+        markGeneratedFile("Items");
+
+        assertThat(generate(), equalTo(generatedFiles));
+        assertThat(isMarked("Items"), is(true));
+    }
+
+    @Test
+    public void regeneratesAfterIncludedFileChange() throws Exception
+    {
+        generate();
+        markGeneratedFile("Items");
+
+        FileUtils.writeStringToFile(itemSchemaFile, ITEM_SCHEMA.replace("name", "title"), "UTF-8");
+        generate();
+
+        assertThat(isMarked("Items"), is(false));
+        assertThat(FileUtils.readFileToString(getModelFile("Item"), "UTF-8"), containsString("title"));
+    }
+
+    @Test
+    public void regeneratesAfterSchemaChange() throws Exception
+    {
+        generate();
+        markGeneratedFile("Items");
+
+        FileUtils.writeStringToFile(addressSchemaFile, ADDRESS_SCHEMA.replace("street", "city"), "UTF-8");
+        generate();
+
+        assertThat(isMarked("Items"), is(false));
+        assertThat(FileUtils.readFileToString(getModelFile("Address"), "UTF-8"), containsString("city"));
+    }
+
+    @Test
+    public void regeneratesAfterConfigurationChange() throws Exception
+    {
+        generate();
+        markGeneratedFile("Items");
+
+        configuration.setUseJsr303Annotations(true);
+        generate();
+
+        assertThat(isMarked("Items"), is(false));
+    }
+
+    @Test
+    public void regeneratesMissingOutputs() throws Exception
+    {
+        generate();
+        markGeneratedFile("Items");
+        assertThat(getResourceFile("Orders").delete(), is(true));
+
+        generate();
+
+        assertThat(getResourceFile("Orders").isFile(), is(true));
+    }
+
+    @Test
+    public void deletesOnlyStaleOutputs() throws Exception
+    {
+        generate();
+        final File unrelatedFile = codegenOutputFolder.newFile("unrelated.txt");
+
+        FileUtils.writeStringToFile(ramlFile, RAML_HEADER + ITEMS_RESOURCE, "UTF-8");
+        final Set<String> generatedFiles = generate();
+
+        assertThat(getResourceFile("Orders").exists(), is(false));
+        assertThat(getResourceFile("Items").isFile(), is(true));
+        assertThat(getModelFile("Item").isFile(), is(true));
+        assertThat(unrelatedFile.isFile(), is(true));
+        for (final String generatedFile : generatedFiles)
+        {
+            assertThat(generatedFile, new File(codegenOutputFolder.getRoot(), generatedFile).isFile(), is(true));
+        }
+    }
+
+    @Test
+    public void regeneratesAllRamlFilesSharingModelClassesAfterAnyChange() throws Exception
+    {
+        final File itemsRamlFile = sourceFolder.newFile("a.raml");
+        FileUtils.writeStringToFile(itemsRamlFile, sharedItemRamlFile("items", "name"), "UTF-8");
+        // another shape of item, whose class name depends on the item of the first RAML file
+        final File partsRamlFile = sourceFolder.newFile("b.raml");
+        FileUtils.writeStringToFile(partsRamlFile, sharedItemRamlFile("parts", "sku"), "UTF-8");
+        generateSharingModelClasses(codegenOutputFolder.getRoot(), itemsRamlFile, partsRamlFile);
+
+        FileUtils.writeStringToFile(partsRamlFile, sharedItemRamlFile("pieces", "sku"), "UTF-8");
+        generateSharingModelClasses(codegenOutputFolder.getRoot(), itemsRamlFile, partsRamlFile);
+
+        final File cleanOutputFolder = sourceFolder.newFolder("clean");
+        generateSharingModelClasses(cleanOutputFolder, itemsRamlFile, partsRamlFile);
+
+        final Map<String, String> cleanFiles = readGeneratedFiles(cleanOutputFolder);
+        assertThat(cleanFiles.keySet(), hasItem("org/raml/jaxrs/test/incremental/shared/Item1.java"));
+        assertThat(readGeneratedFiles(codegenOutputFolder.getRoot()), equalTo(cleanFiles));
+    }
+
+    private static String sharedItemRamlFile(final String resource, final String property)
+    {
+        return "#%RAML 0.8\ntitle: Shared API\nschemas:\n"
+            + "  - item: |\n"
+            + "      { \"type\": \"object\", \"properties\": { \"" + property + "\": { \"type\": \"string\" } } }\n"
+            + "/" + resource + ":\n  get:\n    responses:\n      200:\n        body:\n"
+            + "          application/json:\n            schema: item\n";
+    }
+
+    private void generateSharingModelClasses(final File outputDirectory, final File... ramlFiles) throws Exception
+    {
+        // like a build, each generation starts with an empty registry
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setSharedModelRegistry(new SharedModelRegistry("org.raml.jaxrs.test.incremental.shared"));
+
+        final Map<URL, Configuration> ramlFileConfigurations = new LinkedHashMap<URL, Configuration>();
+        for (final File ramlFile : ramlFiles)
+        {
+            ramlFileConfigurations.put(ramlFile.toURI().toURL(), new Configuration(configuration));
+        }
+
+        final GenerationManifest manifest = GenerationManifest.load(outputDirectory);
+        final IncrementalGenerator incrementalGenerator = new IncrementalGenerator(new Generator(), manifest);
+        incrementalGenerator.invalidateAllIfAnyChanged(ramlFileConfigurations);
+        for (final Map.Entry<URL, Configuration> ramlFileConfiguration : ramlFileConfigurations.entrySet())
+        {
+            incrementalGenerator.run(ramlFileConfiguration.getKey(), ramlFileConfiguration.getValue());
+        }
+        manifest.save();
+    }
+
+    private static Map<String, String> readGeneratedFiles(final File outputDirectory) throws Exception
+    {
+        final Map<String, String> generatedFiles = new TreeMap<String, String>();
+        for (final File file : FileUtils.listFiles(outputDirectory, new String[]{"java"}, true))
+        {
+            final String path = file.getPath().substring(outputDirectory.getPath().length() + 1);
+            generatedFiles.put(path.replace(File.separatorChar, '/'), FileUtils.readFileToString(file, "UTF-8"));
+        }
+        return generatedFiles;
+    }
+
+    private Set<String> generate() throws Exception
+    {
+        final GenerationManifest manifest = GenerationManifest.load(codegenOutputFolder.getRoot());
+        final Set<String> generatedFiles = new IncrementalGenerator(new Generator(), manifest).run(
+            ramlFile.toURI().toURL(), configuration);
+        manifest.save();
+        return generatedFiles;
+    }
+
+    private void markGeneratedFile(final String resourceName) throws Exception
+    {
+        final File file = getResourceFile(resourceName);
+        FileUtils.writeStringToFile(file, FileUtils.readFileToString(file, "UTF-8") + MARKER, "UTF-8");
+    }
+
+    private boolean isMarked(final String resourceName) throws Exception
+    {
+        return FileUtils.readFileToString(getResourceFile(resourceName), "UTF-8").endsWith(MARKER);
+    }
+
+    private File getResourceFile(final String name)
+    {
+        return new File(codegenOutputFolder.getRoot(), "org/raml/jaxrs/test/incremental/resource/" + name + ".java");
+    }
+
+    private File getModelFile(final String name)
+    {
+        return new File(codegenOutputFolder.getRoot(), "org/raml/jaxrs/test/incremental/model/" + name + ".java");
+    }
+}
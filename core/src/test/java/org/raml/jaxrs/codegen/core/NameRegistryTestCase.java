@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class NameRegistryTestCase
+{
+    @Test
+    public void suffixesTakenNames()
+    {
+        final NameRegistry nameRegistry = new NameRegistry();
+
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo"));
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo1"));
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo2"));
+        assertThat(nameRegistry.reserve("bar"), equalTo("bar"));
+    }
+
+    @Test
+    public void skipsSuffixedNamesReservedBeforeTheBaseName()
+    {
+        final NameRegistry nameRegistry = new NameRegistry();
+
+        assertThat(nameRegistry.reserve("foo1"), equalTo("foo1"));
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo"));
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo2"));
+        assertThat(nameRegistry.reserve("foo1"), equalTo("foo11"));
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo3"));
+    }
+
+    @Test
+    public void skipsSuffixedNamesReservedAfterTheBaseName()
+    {
+        final NameRegistry nameRegistry = new NameRegistry();
+
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo"));
+        assertThat(nameRegistry.reserve("foo2"), equalTo("foo2"));
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo1"));
+        assertThat(nameRegistry.reserve("foo"), equalTo("foo3"));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.WordUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.junit.Test;
+import org.raml.model.MimeType;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class NamesTestCase
+{
+    private static final String[] JAVA_FRIENDLY_NAME_SOURCES = {"", " ", "_", "__", "a", "A", "abc", "aBc",
+        "hello world", "hello  world", " hello world ", "hello_world", "hello-world", "hello.world", "hello/world",
+        "/hello/{world}", "/songs/{songId}/lyrics", "hello\tworld", "hello\nworld", "hello__world", "_hello_",
+        "1", "123", "1abc", "1 abc", "_1abc", "-1abc", "abc1", "abc 1", "abc1def", "a1 b2 c3", "1.0", "v1.2-beta",
+        "caf\u00e9", "caf\u00e9 au lait", "\u00e9t\u00e9", "\u00fcber cool", "na\u00efve_approach", "stra\u00dfe",
+        "\u65e5\u672c\u8a9e", "api \u65e5\u672c", "\u0645\u0631\u062d\u0628\u0627 world", "\u00c9cole 42",
+        "\u0130stanbul", "\u01c4ebel", "\u01c6ungla", "emoji \ud83d\ude00 name", "x\u00a0y", "x\u2003y",
+        "application/json", "application/vnd.acme+json", "text/plain; charset=utf-8", "Internal Server Error",
+        "_500", "By Id", "users By userId", "$ref", "a$b", "a#b", "a@b", "a!b?", "(a)[b]{c}", "'quoted'",
+        "\"double\"", "tab\tand space", "camelCase", "PascalCase", "snake_case_name", "kebab-case-name",
+        "SCREAMING_CASE", "mixed_Case-name.with/all", "9lives", "0", "007 bond"};
+
+    @Test
+    public void javaFriendlyNamesAreTheSameAsTheRegexBasedOnes()
+    {
+        for (final String source : JAVA_FRIENDLY_NAME_SOURCES)
+        {
+            final String expectedName = buildRegexBasedJavaFriendlyName(source);
+
+            assertThat(source, Names.buildJavaFriendlyName(source), equalTo(expectedName));
+            // memoized
+            assertThat(source, Names.buildJavaFriendlyName(source), equalTo(expectedName));
+        }
+    }
+
+    @Test
+    public void mediaTypeConstantNamesAreUpperCaseIdentifiers()
+    {
+        assertThat(Names.buildMediaTypeConstantName("application/json"), equalTo("APPLICATION_JSON_TYPE"));
+        assertThat(Names.buildMediaTypeConstantName("application/hal+json"), equalTo("APPLICATION_HAL_JSON_TYPE"));
+        assertThat(Names.buildMediaTypeConstantName("application/vnd.acme+json"),
+            equalTo("APPLICATION_VND_ACME_JSON_TYPE"));
+        // only made unique by Context#getMediaTypeConstant
+        assertThat(Names.buildMediaTypeConstantName("application/vnd-acme+json"),
+            equalTo("APPLICATION_VND_ACME_JSON_TYPE"));
+        assertThat(Names.buildMediaTypeConstantName("text/plain; charset=utf-8"),
+            equalTo("TEXT_PLAIN_CHARSET_UTF_8_TYPE"));
+        assertThat(Names.buildMediaTypeConstantName("3gpp/video"), equalTo("_3GPP_VIDEO_TYPE"));
+        assertThat(Names.buildMediaTypeConstantName("*/*"), equalTo("_TYPE"));
+    }
+
+    @Test
+    public void responseMethodNamesAreIdentifiers()
+    {
+        assertThat(Names.buildResponseMethodName(200, new MimeType("application/json")), equalTo("jsonOK"));
+        assertThat(Names.buildResponseMethodName(201, new MimeType("application/hal+json")),
+            equalTo("halJsonCreated"));
+        assertThat(Names.buildResponseMethodName(200, new MimeType("application/vnd.acme+json")),
+            equalTo("vndAcmeJsonOK"));
+        assertThat(Names.buildResponseMethodName(200, new MimeType("application/x-www-form-urlencoded")),
+            equalTo("formUrlencodedOK"));
+        assertThat(Names.buildResponseMethodName(299, new MimeType("text/plain")), equalTo("plain_299"));
+        assertThat(Names.buildResponseMethodName(204, null), equalTo("responseNoContent"));
+    }
+
+    /**
+     * The former implementation of {@link Names#buildJavaFriendlyName(String)}, which the current one
+     * must be equivalent to.
+     */
+    private static String buildRegexBasedJavaFriendlyName(final String source)
+    {
+        final String baseName = source.replaceAll("[\\W_]", " ");
+
+        String friendlyName = WordUtils.capitalize(baseName).replaceAll("[\\W_]", "");
+
+        if (NumberUtils.isDigits(StringUtils.left(friendlyName, 1)))
+        {
+            friendlyName = "_" + friendlyName;
+        }
+
+        return friendlyName;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.raml.jaxrs.codegen.core.GenerationMetrics.Counter;
+import org.raml.model.Action;
+import org.raml.model.Raml;
+import org.raml.model.Resource;
+import org.raml.parser.loader.DefaultResourceLoader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RamlModelCacheTestCase
+{
+    private static final String RAML = "#%RAML 0.8\ntitle: Cached API\nschemas:\n"
+        + "  - item: !include item-schema.json\n"
+        + "/items:\n  get:\n    responses:\n      200:\n        body:\n"
+        + "          application/json:\n            schema: item\n";
+    private static final String ITEM_SCHEMA = "{ \"type\": \"object\", \"properties\": {"
+        + " \"name\": { \"type\": \"string\" } } }";
+
+    private static final byte[] NO_CONTENT = new byte[0];
+
+    @Rule
+    public TemporaryFolder sourceFolder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder cacheFolder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    private File ramlFile;
+    private File itemSchemaFile;
+
+    @Before
+    public void createRamlFiles() throws Exception
+    {
+        ramlFile = sourceFolder.newFile("cached.raml");
+        FileUtils.writeStringToFile(ramlFile, RAML, "UTF-8");
+        itemSchemaFile = sourceFolder.newFile("item-schema.json");
+        FileUtils.writeStringToFile(itemSchemaFile, ITEM_SCHEMA, "UTF-8");
+    }
+
+    @Test
+    public void hitsWhenNothingChanged() throws Exception
+    {
+        final RamlModelCache ramlModelCache = new RamlModelCache(cacheFolder.getRoot(), 10);
+
+        assertThat(generate(ramlFile.toURI().toURL(), ramlModelCache), is(0L));
+        // from memory
+        assertThat(generate(ramlFile.toURI().toURL(), ramlModelCache), is(1L));
+        // from disk
+        assertThat(generate(ramlFile.toURI().toURL(), new RamlModelCache(cacheFolder.getRoot(), 10)), is(1L));
+    }
+
+    @Test
+    public void missesWhenAnIncludedFileChanges() throws Exception
+    {
+        final RamlModelCache ramlModelCache = new RamlModelCache(cacheFolder.getRoot(), 10);
+        generate(ramlFile.toURI().toURL(), ramlModelCache);
+
+        FileUtils.writeStringToFile(itemSchemaFile, ITEM_SCHEMA.replace("name", "title"), "UTF-8");
+
+        assertThat(generate(ramlFile.toURI().toURL(), ramlModelCache), is(0L));
+        assertThat(generate(ramlFile.toURI().toURL(), new RamlModelCache(cacheFolder.getRoot(), 10)), is(1L));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() throws Exception
+    {
+        final RamlModelCache ramlModelCache = new RamlModelCache(cacheFolder.getRoot(), 2);
+
+        final File firstEntry = put(ramlModelCache, "first.raml");
+        final File secondEntry = put(ramlModelCache, "second.raml");
+        firstEntry.setLastModified(System.currentTimeMillis() - 20000);
+        secondEntry.setLastModified(System.currentTimeMillis() - 10000);
+
+        // using the first entry makes the second one the least recently used
+        assertThat(new RamlModelCache(cacheFolder.getRoot(), 2).get("first.raml", NO_CONTENT,
+            new DefaultResourceLoader()), is(notNullValue()));
+        final File thirdEntry = put(ramlModelCache, "third.raml");
+
+        assertThat(firstEntry.isFile(), is(true));
+        assertThat(secondEntry.isFile(), is(false));
+        assertThat(thirdEntry.isFile(), is(true));
+    }
+
+    @Test
+    public void deletesCorruptEntries() throws Exception
+    {
+        final File entry = put(new RamlModelCache(cacheFolder.getRoot(), 10), "corrupt.raml");
+        FileUtils.writeStringToFile(entry, "not a cached model", "UTF-8");
+
+        assertThat(new RamlModelCache(cacheFolder.getRoot(), 10).get("corrupt.raml", NO_CONTENT,
+            new DefaultResourceLoader()), is(nullValue()));
+        assertThat(entry.exists(), is(false));
+    }
+
+    @Test
+    public void rejectsClassesNotPartOfRamlModels() throws Exception
+    {
+        final File entry = put(new RamlModelCache(cacheFolder.getRoot(), 10), "unexpected.raml");
+
+        final ObjectOutputStream output = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(entry)));
+        try
+        {
+            output.writeInt(1);
+            output.writeUTF("unexpected.raml");
+            output.writeInt(0);
+            output.writeObject(new File("unexpected"));
+        }
+        finally
+        {
+            output.close();
+        }
+
+        assertThat(new RamlModelCache(cacheFolder.getRoot(), 10).get("unexpected.raml", NO_CONTENT,
+            new DefaultResourceLoader()), is(nullValue()));
+        assertThat(entry.exists(), is(false));
+    }
+
+    @Test
+    public void cachedModelsGenerateTheSameOutput() throws Exception
+    {
+        final URL ramlUrl = getClass().getResource("/org/raml/integration/sales-enablement-api-with-collections.yaml");
+
+        final File parsedOutputDirectory = codegenOutputFolder.newFolder();
+        assertThat(generate(ramlUrl, new RamlModelCache(cacheFolder.getRoot(), 10), parsedOutputDirectory), is(0L));
+
+        final RamlModelCache ramlModelCache = new RamlModelCache(cacheFolder.getRoot(), 10);
+        final File cachedOutputDirectory = codegenOutputFolder.newFolder();
+        assertThat(generate(ramlUrl, ramlModelCache, cachedOutputDirectory), is(1L));
+
+        final Map<String, byte[]> parsedSources = readSources(parsedOutputDirectory);
+        final Map<String, byte[]> cachedSources = readSources(cachedOutputDirectory);
+        assertThat(cachedSources.keySet(), equalTo(parsedSources.keySet()));
+        for (final Map.Entry<String, byte[]> source : cachedSources.entrySet())
+        {
+            assertThat(source.getKey(), Arrays.equals(source.getValue(), parsedSources.get(source.getKey())),
+                is(true));
+        }
+
+        // the back references of the model are restored too
+        final Raml cachedRaml = ramlModelCache.get(ramlUrl.toString(),
+            FileUtils.readFileToByteArray(new File(ramlUrl.toURI())), new DefaultResourceLoader());
+        for (final Resource resource : cachedRaml.getResources().values())
+        {
+            for (final Resource childResource : resource.getResources().values())
+            {
+                assertThat(childResource.getParentResource(), is(sameInstance(resource)));
+            }
+            for (final Action action : resource.getActions().values())
+            {
+                assertThat(action.getResource(), is(sameInstance(resource)));
+            }
+        }
+    }
+
+    private long generate(final URL ramlUrl, final RamlModelCache ramlModelCache) throws Exception
+    {
+        return generate(ramlUrl, ramlModelCache, codegenOutputFolder.newFolder());
+    }
+
+    /**
+     * @return the number of RAML models read from the cache.
+     */
+    private long generate(final URL ramlUrl, final RamlModelCache ramlModelCache, final File outputDirectory)
+        throws Exception
+    {
+        final Configuration configuration = new Configuration();
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setBasePackageName("org.raml.jaxrs.test.cached");
+        configuration.setRamlModelCache(ramlModelCache);
+        configuration.setGenerationMetrics(new GenerationMetrics());
+
+        new Generator().run(ramlUrl, configuration);
+
+        return configuration.getGenerationMetrics().getCount(Counter.CACHED_RAML_MODELS);
+    }
+
+    /**
+     * @return the file of the new cache entry.
+     */
+    private File put(final RamlModelCache ramlModelCache, final String ramlLocation)
+    {
+        final Collection<File> existingEntries = listEntries();
+
+        final Raml raml = new Raml();
+        raml.setTitle(ramlLocation);
+        ramlModelCache.put(ramlLocation, NO_CONTENT, Collections.<String, String> emptyMap(), raml);
+
+        final Collection<File> entries = listEntries();
+        entries.removeAll(existingEntries);
+        assertThat(entries.size(), is(1));
+        return entries.iterator().next();
+    }
+
+    private Collection<File> listEntries()
+    {
+        return FileUtils.listFiles(cacheFolder.getRoot(), new String[]{RamlModelCache.FILE_EXTENSION.substring(1)},
+            false);
+    }
+
+    private static Map<String, byte[]> readSources(final File outputDirectory) throws Exception
+    {
+        final Map<String, byte[]> sources = new TreeMap<String, byte[]>();
+        for (final File file : FileUtils.listFiles(outputDirectory, null, true))
+        {
+            final String path = file.getAbsolutePath().substring(outputDirectory.getAbsolutePath().length());
+            sources.put(path, FileUtils.readFileToByteArray(file));
+        }
+        return sources;
+    }
+}
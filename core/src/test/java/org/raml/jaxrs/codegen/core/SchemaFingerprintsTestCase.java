@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SchemaFingerprintsTestCase
+{
+    private static final String SCHEMA = "{ \"type\": \"object\", \"properties\": {"
+        + " \"name\": { \"type\": \"string\" }, \"age\": { \"type\": \"integer\" } } }";
+
+    @Test
+    public void ignoresWhitespaceAndKeyOrder()
+    {
+        final String reformattedSchema = "{\n  \"properties\" : {\n    \"name\" : {\"type\":\"string\"},\n"
+            + "    \"age\" : {\"type\":\"integer\"}\n  },\n  \"type\" : \"object\"\n}\n";
+
+        assertThat(SchemaFingerprints.compute(reformattedSchema), equalTo(SchemaFingerprints.compute(SCHEMA)));
+    }
+
+    @Test
+    public void keepsPropertiesOrder()
+    {
+        final String ageFirstSchema = "{ \"type\": \"object\", \"properties\": {"
+            + " \"age\": { \"type\": \"integer\" }, \"name\": { \"type\": \"string\" } } }";
+
+        assertThat(SchemaFingerprints.compute(ageFirstSchema), not(equalTo(SchemaFingerprints.compute(SCHEMA))));
+    }
+
+    @Test
+    public void ignoresDocumentationKeywords()
+    {
+        final String documentedSchema = "{ \"$schema\": \"http://json-schema.org/draft-04/schema\","
+            + " \"title\": \"Person\", \"description\": \"A person\", \"type\": \"object\", \"properties\": {"
+            + " \"name\": { \"type\": \"string\", \"description\": \"The name\", \"example\": \"Joe\" },"
+            + " \"age\": { \"type\": \"integer\", \"title\": \"Age\" } } }";
+
+        assertThat(SchemaFingerprints.compute(documentedSchema), equalTo(SchemaFingerprints.compute(SCHEMA)));
+    }
+
+    @Test
+    public void keepsPropertiesNamedLikeIgnoredKeywords()
+    {
+        final String schemaWithDescription = SCHEMA.replace("} } }",
+            "}, \"description\": { \"type\": \"string\" } } }");
+        final String schemaWithTitle = SCHEMA.replace("} } }", "}, \"title\": { \"type\": \"string\" } } }");
+
+        assertThat(SchemaFingerprints.compute(schemaWithDescription),
+            not(equalTo(SchemaFingerprints.compute(SCHEMA))));
+        assertThat(SchemaFingerprints.compute(schemaWithDescription),
+            not(equalTo(SchemaFingerprints.compute(schemaWithTitle))));
+    }
+
+    @Test
+    public void ignoresRequiredPropertiesOrder()
+    {
+        final String nameFirstSchema = SCHEMA.replace("} } }", "} }, \"required\": [ \"name\", \"age\" ] }");
+        final String ageFirstSchema = SCHEMA.replace("} } }", "} }, \"required\": [ \"age\", \"name\" ] }");
+        final String nameOnlySchema = SCHEMA.replace("} } }", "} }, \"required\": [ \"name\" ] }");
+
+        assertThat(SchemaFingerprints.compute(ageFirstSchema), equalTo(SchemaFingerprints.compute(nameFirstSchema)));
+        assertThat(SchemaFingerprints.compute(nameOnlySchema),
+            not(equalTo(SchemaFingerprints.compute(nameFirstSchema))));
+    }
+
+    @Test
+    public void keepsEnumOrder()
+    {
+        final String schema = "{ \"type\": \"string\", \"enum\": [ \"a\", \"b\" ] }";
+
+        assertThat(SchemaFingerprints.compute(schema.replace("\"a\", \"b\"", "\"b\", \"a\"")),
+            not(equalTo(SchemaFingerprints.compute(schema))));
+    }
+
+    @Test
+    public void fingerprintsNonJsonSchemasByContent()
+    {
+        final String xmlSchema = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+            + "<xs:element name=\"person\" type=\"xs:string\"/></xs:schema>";
+
+        assertThat(SchemaFingerprints.compute("\n" + xmlSchema + "\n"), equalTo(SchemaFingerprints.compute(xmlSchema)));
+        assertThat(SchemaFingerprints.compute(xmlSchema.replace("person", "people")),
+            not(equalTo(SchemaFingerprints.compute(xmlSchema))));
+    }
+}
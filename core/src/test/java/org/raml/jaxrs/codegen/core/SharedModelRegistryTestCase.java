@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SharedModelRegistryTestCase
+{
+    private static final String SHARED_MODEL_PACKAGE = "org.raml.jaxrs.test.shared";
+
+    private static final String ORDERS_RAML = "#%RAML 0.8\ntitle: Orders API\nschemas:\n"
+        + "  - order: '{ \"type\": \"object\", \"properties\": { \"item\": { \"type\": \"object\","
+        + " \"properties\": { \"sku\": { \"type\": \"string\" } } } } }'\n"
+        + "/orders:\n  get:\n    responses:\n      200:\n        body:\n"
+        + "          application/json:\n            schema: order\n";
+    private static final String CARTS_RAML = "#%RAML 0.8\ntitle: Carts API\nschemas:\n"
+        + "  - cart: '{ \"type\": \"object\", \"properties\": { \"item\": { \"type\": \"object\","
+        + " \"properties\": { \"quantity\": { \"type\": \"integer\" } } } } }'\n"
+        + "/carts:\n  get:\n    responses:\n      200:\n        body:\n"
+        + "          application/json:\n            schema: cart\n";
+
+    @Rule
+    public TemporaryFolder sourceFolder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void nestedClassesOfDifferentRamlFilesGetDifferentNames() throws Exception
+    {
+        final File outputDirectory = codegenOutputFolder.newFolder();
+        final SharedModelRegistry sharedModelRegistry = new SharedModelRegistry(SHARED_MODEL_PACKAGE);
+
+        generate(ORDERS_RAML, "orders", outputDirectory, sharedModelRegistry);
+        generate(CARTS_RAML, "carts", outputDirectory, sharedModelRegistry);
+
+        assertThat(readModelFile(outputDirectory, "Item"), containsString("getSku()"));
+        assertThat(readModelFile(outputDirectory, "Item_"), containsString("getQuantity()"));
+    }
+
+    @Test
+    public void reusedSchemasReportTheirNestedClasses() throws Exception
+    {
+        final File outputDirectory = codegenOutputFolder.newFolder();
+        final SharedModelRegistry sharedModelRegistry = new SharedModelRegistry(SHARED_MODEL_PACKAGE);
+
+        generate(ORDERS_RAML, "orders", outputDirectory, sharedModelRegistry);
+        final Set<String> generatedFiles = generate(ORDERS_RAML.replace("/orders", "/purchases"), "purchases",
+            outputDirectory, sharedModelRegistry);
+
+        assertThat(generatedFiles, hasItems(getModelPath("Order"), getModelPath("Item")));
+    }
+
+    @Test
+    public void concurrentSchemaGenerationProducesTheSameOutput() throws Exception
+    {
+        final File serialOutputDirectory = codegenOutputFolder.newFolder();
+        final SharedModelRegistry serialSharedModelRegistry = new SharedModelRegistry(SHARED_MODEL_PACKAGE);
+        generate(ORDERS_RAML, "orders", serialOutputDirectory, serialSharedModelRegistry);
+        generate(CARTS_RAML, "carts", serialOutputDirectory, serialSharedModelRegistry);
+
+        final File outputDirectory = codegenOutputFolder.newFolder();
+        final SharedModelRegistry sharedModelRegistry = new SharedModelRegistry(SHARED_MODEL_PACKAGE);
+        generate(ORDERS_RAML, "orders", outputDirectory, sharedModelRegistry);
+        final Configuration configuration = createConfiguration("carts", outputDirectory, sharedModelRegistry);
+        configuration.setSchemaThreads(4);
+        new Generator().run(createRamlFile(CARTS_RAML, "carts").toURI().toURL(), configuration);
+
+        assertThat(readSources(outputDirectory), equalTo(readSources(serialOutputDirectory)));
+    }
+
+    private Set<String> generate(final String raml,
+                                 final String name,
+                                 final File outputDirectory,
+                                 final SharedModelRegistry sharedModelRegistry) throws Exception
+    {
+        return new Generator().run(createRamlFile(raml, name).toURI().toURL(),
+            createConfiguration(name, outputDirectory, sharedModelRegistry));
+    }
+
+    private File createRamlFile(final String raml, final String name) throws Exception
+    {
+        final File ramlFile = new File(sourceFolder.getRoot(), name + ".raml");
+        FileUtils.writeStringToFile(ramlFile, raml, "UTF-8");
+        return ramlFile;
+    }
+
+    private Configuration createConfiguration(final String name,
+                                              final File outputDirectory,
+                                              final SharedModelRegistry sharedModelRegistry)
+    {
+        final Configuration configuration = new Configuration();
+        configuration.setOutputDirectory(outputDirectory);
+        configuration.setBasePackageName("org.raml.jaxrs.test." + name);
+        configuration.setSharedModelRegistry(sharedModelRegistry);
+        return configuration;
+    }
+
+    private static String getModelPath(final String className)
+    {
+        return (SHARED_MODEL_PACKAGE + "." + className).replace('.', File.separatorChar) + ".java";
+    }
+
+    private static String readModelFile(final File outputDirectory, final String className) throws Exception
+    {
+        return FileUtils.readFileToString(new File(outputDirectory, getModelPath(className)), "UTF-8");
+    }
+
+    private static Map<String, String> readSources(final File outputDirectory) throws Exception
+    {
+        final Map<String, String> sources = new TreeMap<String, String>();
+        for (final File file : FileUtils.listFiles(outputDirectory, null, true))
+        {
+            final String path = file.getAbsolutePath().substring(outputDirectory.getAbsolutePath().length());
+            sources.put(path, FileUtils.readFileToString(file, "UTF-8"));
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SourceJarWriterTestCase
+{
+    private static final String TEST_BASE_PACKAGE = "org.raml.jaxrs.test";
+
+    private static final String RAML_FILE = "/org/raml/full-config-with-patch.yaml";
+
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void sourceJarHoldsTheSameFilesAsOutputDirectory() throws Exception
+    {
+        final Configuration configuration = new Configuration();
+        configuration.setBasePackageName(TEST_BASE_PACKAGE);
+        configuration.setOutputDirectory(codegenOutputFolder.newFolder("sources"));
+
+        final Set<String> generatedFiles = new Generator().run(getClass().getResource(RAML_FILE), configuration);
+
+        final File jarFile = new File(codegenOutputFolder.getRoot(), "sources.jar");
+        final SourceJarWriter sourceJarWriter = new SourceJarWriter(jarFile);
+        final Configuration jarConfiguration = new Configuration(configuration);
+        jarConfiguration.setOutputDirectory(null);
+        jarConfiguration.setSourceJarWriter(sourceJarWriter);
+
+        final Set<String> generatedEntries;
+        try
+        {
+            generatedEntries = new Generator().run(getClass().getResource(RAML_FILE), jarConfiguration);
+        }
+        finally
+        {
+            sourceJarWriter.close();
+        }
+
+        assertThat(generatedEntries, equalTo(generatedFiles));
+
+        final JarFile jar = new JarFile(jarFile);
+        try
+        {
+            final Set<String> entryPaths = new TreeSet<String>();
+            for (final Enumeration<? extends ZipEntry> entries = jar.entries(); entries.hasMoreElements();)
+            {
+                final ZipEntry entry = entries.nextElement();
+                entryPaths.add(entry.getName().replace('/', File.separatorChar));
+
+                final File file = new File(configuration.getOutputDirectory(), entry.getName());
+                assertThat(entry.getName(), IOUtils.toByteArray(jar.getInputStream(entry)),
+                    equalTo(FileUtils.readFileToByteArray(file)));
+            }
+            assertThat(entryPaths, equalTo((Set<String>) new TreeSet<String>(generatedFiles)));
+        }
+        finally
+        {
+            jar.close();
+        }
+    }
+}
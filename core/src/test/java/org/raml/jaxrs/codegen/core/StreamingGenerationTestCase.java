@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.core;
+
+import com.sun.codemodel.JCodeModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.raml.model.Resource;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class StreamingGenerationTestCase
+{
+    @Rule
+    public TemporaryFolder codegenOutputFolder = new TemporaryFolder();
+
+    @Test
+    public void flushedCodeModelsAreReleased() throws Exception
+    {
+        final List<WeakReference<JCodeModel>> flushedCodeModels = new ArrayList<WeakReference<JCodeModel>>();
+        final List<Boolean> releases = new ArrayList<Boolean>();
+        final Generator generator = new Generator()
+        {
+            @Override
+            protected void createResourceInterface(final Resource resource) throws Exception
+            {
+                // the generation still holds its context and schema classes, but none of the flushed code models
+                if (!flushedCodeModels.isEmpty())
+                {
+                    releases.add(awaitRelease(flushedCodeModels));
+                }
+                flushedCodeModels.add(new WeakReference<JCodeModel>(getContext().getCodeModel()));
+                super.createResourceInterface(resource);
+            }
+        };
+
+        final Configuration configuration = new Configuration();
+        configuration.setBasePackageName("org.raml.jaxrs.test.streaming");
+        configuration.setOutputDirectory(codegenOutputFolder.getRoot());
+        configuration.setStreamingGeneration(true);
+        generator.run(getClass().getResource("/org/raml/integration/sales-enablement-api-with-collections.yaml"),
+            configuration);
+
+        assertThat(releases, is(not(empty())));
+        assertThat(releases, everyItem(is(true)));
+    }
+
+    private static boolean awaitRelease(final List<WeakReference<JCodeModel>> references) throws InterruptedException
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            if (isCleared(references))
+            {
+                return true;
+            }
+            System.gc();
+            Thread.sleep(50);
+        }
+        return isCleared(references);
+    }
+
+    private static boolean isCleared(final List<WeakReference<JCodeModel>> references)
+    {
+        for (final WeakReference<JCodeModel> reference : references)
+        {
+            if (reference.get() != null)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
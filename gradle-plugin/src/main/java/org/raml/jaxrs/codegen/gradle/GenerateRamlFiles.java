@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.gradle;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.jsonschema2pojo.AnnotationStyle;
+import org.raml.jaxrs.codegen.core.Configuration;
+import org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion;
+import org.raml.jaxrs.codegen.core.Generator;
+import org.raml.jaxrs.codegen.core.RecordingResourceLoader;
+import org.raml.jaxrs.codegen.core.SharedModelRegistry;
+import org.raml.parser.loader.DefaultResourceLoader;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a batch of RAML files in a worker and records, for each one, the resources it included
+ * and the files it generated, so the task can track them in its generation manifest.
+ */
+public abstract class GenerateRamlFiles implements WorkAction<GenerateRamlFiles.Parameters>
+{
+    static final String INPUT_PREFIX = "input=";
+    static final String OUTPUT_PREFIX = "output=";
+
+    /**
+     * The RAML files to generate and the configuration to generate them with
+     */
+    public interface Parameters extends WorkParameters
+    {
+        ListProperty<String> getRamlFiles();
+
+        /**
+         * @return the files in which the inputs and outputs of each RAML file are recorded, in the
+         *         same order as the RAML files.
+         */
+        ListProperty<String> getStateFiles();
+
+        DirectoryProperty getOutputDirectory();
+
+        Property<String> getBasePackageName();
+
+        Property<String> getJaxrsVersion();
+
+        Property<Boolean> getUseJsr303Annotations();
+
+        Property<String> getJsonMapper();
+
+        Property<String> getSchemaLocation();
+
+        Property<String> getSharedModelPackageName();
+    }
+
+    @Override
+    public void execute()
+    {
+        final Parameters parameters = getParameters();
+
+        final Configuration configuration = new Configuration();
+        configuration.setOutputDirectory(parameters.getOutputDirectory().get().getAsFile());
+        configuration.setBasePackageName(parameters.getBasePackageName().get());
+        configuration.setJaxrsVersion(JaxrsVersion.fromAlias(parameters.getJaxrsVersion().get()));
+        configuration.setUseJsr303Annotations(parameters.getUseJsr303Annotations().get());
+        configuration.setJsonMapper(AnnotationStyle.valueOf(parameters.getJsonMapper().get().toUpperCase()));
+        // only rewrite what changed, so the compilation stays incremental
+        configuration.setWriteOnlyChangedFiles(true);
+
+        if (parameters.getSharedModelPackageName().isPresent())
+        {
+            // a batch holds all the RAML files sharing the registry
+            configuration.setSharedModelRegistry(
+                new SharedModelRegistry(parameters.getSharedModelPackageName().get()));
+        }
+
+        final Generator generator = new Generator();
+        final List<String> ramlFiles = parameters.getRamlFiles().get();
+        final List<String> stateFiles = parameters.getStateFiles().get();
+
+        for (int i = 0; i < ramlFiles.size(); i++)
+        {
+            final File ramlFile = new File(ramlFiles.get(i));
+
+            final Configuration ramlFileConfiguration = new Configuration(configuration);
+            ramlFileConfiguration.setSchemaLocation(new File(ramlFile.getParentFile(),
+                parameters.getSchemaLocation().get()));
+
+            final RecordingResourceLoader resourceLoader = new RecordingResourceLoader(new DefaultResourceLoader());
+            try
+            {
+                final Set<String> generatedFiles = generator.run(ramlFile.toURI().toURL(), ramlFileConfiguration,
+                    resourceLoader);
+
+                final List<String> state = new ArrayList<String>();
+                for (final String input : resourceLoader.getResourceDigests().keySet())
+                {
+                    state.add(INPUT_PREFIX + input);
+                }
+                for (final String generatedFile : generatedFiles)
+                {
+                    state.add(OUTPUT_PREFIX + generatedFile);
+                }
+                Files.write(new File(stateFiles.get(i)).toPath(), state, StandardCharsets.UTF_8);
+            }
+            catch (final Exception e)
+            {
+                throw new GradleException("Error generating Java classes from: " + ramlFile, e);
+            }
+        }
+    }
+}
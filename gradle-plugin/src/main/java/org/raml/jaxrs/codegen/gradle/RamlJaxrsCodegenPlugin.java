@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.gradle;
+
+import org.gradle.api.Action;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.Transformer;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.util.PatternFilterable;
+
+/**
+ * Adds a task generating JAX-RS annotated Java classes from the RAML files of
+ * src/main/raml, and compiles them along with the main sources when the java plug-in is applied.
+ */
+public class RamlJaxrsCodegenPlugin implements Plugin<Project>
+{
+    public static final String TASK_NAME = "generateRamlJaxrs";
+
+    @Override
+    public void apply(final Project project)
+    {
+        final TaskProvider<RamlJaxrsCodegenTask> generateTask = project.getTasks().register(TASK_NAME,
+            RamlJaxrsCodegenTask.class, new Action<RamlJaxrsCodegenTask>()
+            {
+                @Override
+                public void execute(final RamlJaxrsCodegenTask task)
+                {
+                    configureConventions(project, task);
+                }
+            });
+
+        project.getPlugins().withType(JavaPlugin.class, new Action<JavaPlugin>()
+        {
+            @Override
+            public void execute(final JavaPlugin javaPlugin)
+            {
+                // the provider carries the dependency on the generation task
+                project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets()
+                    .getByName(SourceSet.MAIN_SOURCE_SET_NAME).getJava()
+                    .srcDir(generateTask.flatMap(new Transformer<Provider<Directory>, RamlJaxrsCodegenTask>()
+                    {
+                        @Override
+                        public Provider<Directory> transform(final RamlJaxrsCodegenTask task)
+                        {
+                            return task.getOutputDirectory();
+                        }
+                    }));
+            }
+        });
+    }
+
+    private static void configureConventions(final Project project, final RamlJaxrsCodegenTask task)
+    {
+        task.setGroup("build");
+        task.setDescription("Generates JAX-RS annotated Java classes from RAML files.");
+
+        task.getSourceDirectory().convention(project.getLayout().getProjectDirectory().dir("src/main/raml"));
+        task.getOutputDirectory().convention(
+            project.getLayout().getBuildDirectory().dir("generated-sources/raml-jaxrs"));
+        task.getProjectDirectory().set(project.getLayout().getProjectDirectory());
+
+        task.getJaxrsVersion().convention("1.1");
+        task.getUseJsr303Annotations().convention(false);
+        task.getJsonMapper().convention("jackson1");
+        task.getSchemaLocation().convention("./schema/");
+
+        // like the Maven plug-in, all the RAML and YAML files of the source directory are generated
+        task.getRamlFiles().from(task.getSourceDirectory().map(new Transformer<FileTree, Directory>()
+        {
+            @Override
+            public FileTree transform(final Directory sourceDirectory)
+            {
+                return sourceDirectory.getAsFileTree().matching(new Action<PatternFilterable>()
+                {
+                    @Override
+                    public void execute(final PatternFilterable pattern)
+                    {
+                        pattern.include("**/*.raml", "**/*.yaml");
+                    }
+                });
+            }
+        }));
+
+        // and any file of the source directory can be included by them, or be one of their schemas
+        task.getIncludeFiles().from(task.getSourceDirectory());
+    }
+}
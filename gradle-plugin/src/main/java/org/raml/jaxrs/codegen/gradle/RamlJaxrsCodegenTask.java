@@ -0,0 +1,349 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.gradle;
+
+import org.gradle.api.Action;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DeleteSpec;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+import org.raml.jaxrs.codegen.core.GenerationManifest;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates JAX-RS annotated Java classes from RAML files.
+ * <p>
+ * The RAML files and the files they can include are declared as inputs, relatively to the project,
+ * so the task is up to date when none of them changes and its output can be restored from the
+ * build cache. When some inputs change, only the RAML files that are affected are generated again,
+ * in parallel through the Worker API. RAML files sharing model classes are always all generated
+ * again, since the names of their classes depend on each other.
+ */
+@CacheableTask
+public abstract class RamlJaxrsCodegenTask extends DefaultTask
+{
+    /**
+     * @return the directory containing the RAML files, src/main/raml by default.
+     */
+    @Internal
+    public abstract DirectoryProperty getSourceDirectory();
+
+    /**
+     * @return the RAML files to generate, all the RAML and YAML files of the source directory by
+     *         default. Skipping when empty makes them incremental too.
+     */
+    @InputFiles
+    @SkipWhenEmpty
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getRamlFiles();
+
+    /**
+     * @return the files the RAML files can include, including their schemas: the whole source
+     *         directory by default.
+     */
+    @InputFiles
+    @Incremental
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getIncludeFiles();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @Input
+    public abstract Property<String> getBasePackageName();
+
+    /**
+     * @return the targeted JAX-RS version: either "1.1" or "2.0".
+     */
+    @Input
+    public abstract Property<String> getJaxrsVersion();
+
+    @Input
+    public abstract Property<Boolean> getUseJsr303Annotations();
+
+    /**
+     * @return the JSON object mapper to generate annotations to: either "jackson1", "jackson2",
+     *         "gson" or "none".
+     */
+    @Input
+    public abstract Property<String> getJsonMapper();
+
+    /**
+     * @return the location of schemas, relative to each RAML file.
+     */
+    @Input
+    public abstract Property<String> getSchemaLocation();
+
+    /**
+     * @return when set, the package model classes are generated once in, shared by all the RAML files.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getSharedModelPackageName();
+
+    /**
+     * @return the directory the generation manifest keys are relative to, so outputs restored from
+     *         the build cache stay valid in another checkout.
+     */
+    @Internal
+    public abstract DirectoryProperty getProjectDirectory();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @TaskAction
+    public void generate(final InputChanges inputChanges) throws IOException
+    {
+        final File outputDirectory = getOutputDirectory().get().getAsFile();
+        final List<File> ramlFiles = new ArrayList<File>(new TreeSet<File>(getRamlFiles().getFiles()));
+
+        // the shared model registry isn't persisted: the RAML files sharing it can only be generated together
+        final boolean incremental = inputChanges.isIncremental() && !getSharedModelPackageName().isPresent();
+
+        if (!incremental)
+        {
+            getFileSystemOperations().delete(new Action<DeleteSpec>()
+            {
+                @Override
+                public void execute(final DeleteSpec deleteSpec)
+                {
+                    deleteSpec.delete((Object[]) outputDirectory.listFiles());
+                }
+            });
+        }
+
+        final GenerationManifest manifest = GenerationManifest.load(outputDirectory);
+        final Set<File> ramlFilesToGenerate = incremental
+            ? getAffectedRamlFiles(inputChanges, ramlFiles, manifest)
+            : new LinkedHashSet<File>(ramlFiles);
+
+        getLogger().info("Generating Java classes from: {}", ramlFilesToGenerate);
+
+        final File stateDirectory = getTemporaryDir();
+        final List<File> batchRamlFiles = new ArrayList<File>();
+        final List<File> batchStateFiles = new ArrayList<File>();
+        final WorkQueue workQueue = getWorkerExecutor().noIsolation();
+
+        try
+        {
+            for (final File ramlFile : ramlFilesToGenerate)
+            {
+                final File stateFile = new File(stateDirectory, batchStateFiles.size() + ".state");
+                Files.deleteIfExists(stateFile.toPath());
+                batchRamlFiles.add(ramlFile);
+                batchStateFiles.add(stateFile);
+
+                // RAML files sharing model classes must be generated with the same registry
+                if (!getSharedModelPackageName().isPresent())
+                {
+                    submit(workQueue, batchRamlFiles, batchStateFiles);
+                    batchRamlFiles.clear();
+                }
+            }
+            if (!batchRamlFiles.isEmpty())
+            {
+                submit(workQueue, batchRamlFiles, batchStateFiles);
+            }
+
+            workQueue.await();
+        }
+        finally
+        {
+            recordStates(manifest, new ArrayList<File>(ramlFilesToGenerate), batchStateFiles);
+
+            final List<String> ramlFileKeys = new ArrayList<String>();
+            for (final File ramlFile : ramlFiles)
+            {
+                ramlFileKeys.add(relativize(ramlFile));
+            }
+            manifest.retain(ramlFileKeys);
+            manifest.save();
+        }
+    }
+
+    private Set<File> getAffectedRamlFiles(final InputChanges inputChanges,
+                                           final List<File> ramlFiles,
+                                           final GenerationManifest manifest)
+    {
+        final Set<File> affectedRamlFiles = new LinkedHashSet<File>();
+        for (final FileChange change : inputChanges.getFileChanges(getRamlFiles()))
+        {
+            if ((change.getChangeType() != ChangeType.REMOVED) && (change.getFileType() == FileType.FILE))
+            {
+                affectedRamlFiles.add(change.getFile());
+            }
+        }
+
+        final Set<String> changedIncludes = new TreeSet<String>();
+        for (final FileChange change : inputChanges.getFileChanges(getIncludeFiles()))
+        {
+            changedIncludes.add(relativize(change.getFile()));
+        }
+
+        if (!changedIncludes.isEmpty())
+        {
+            for (final File ramlFile : ramlFiles)
+            {
+                final GenerationManifest.Entry entry = manifest.getEntry(relativize(ramlFile));
+                if ((entry == null) || isAffected(ramlFile, entry.getInputs(), changedIncludes))
+                {
+                    affectedRamlFiles.add(ramlFile);
+                }
+            }
+        }
+
+        return affectedRamlFiles;
+    }
+
+    private boolean isAffected(final File ramlFile, final Set<String> inputs, final Set<String> changedIncludes)
+    {
+        if (!Collections.disjoint(inputs, changedIncludes))
+        {
+            return true;
+        }
+
+        String schemaLocation = relativize(new File(ramlFile.getParentFile(), getSchemaLocation().get()));
+        if (!schemaLocation.endsWith("/"))
+        {
+            schemaLocation += "/";
+        }
+        for (final String changedInclude : changedIncludes)
+        {
+            if (changedInclude.startsWith(schemaLocation))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void submit(final WorkQueue workQueue, final List<File> ramlFiles, final List<File> stateFiles)
+    {
+        final int firstStateFile = stateFiles.size() - ramlFiles.size();
+        final List<String> ramlFilePaths = new ArrayList<String>();
+        final List<String> stateFilePaths = new ArrayList<String>();
+        for (int i = 0; i < ramlFiles.size(); i++)
+        {
+            ramlFilePaths.add(ramlFiles.get(i).getAbsolutePath());
+            stateFilePaths.add(stateFiles.get(firstStateFile + i).getAbsolutePath());
+        }
+
+        workQueue.submit(GenerateRamlFiles.class, new Action<GenerateRamlFiles.Parameters>()
+        {
+            @Override
+            public void execute(final GenerateRamlFiles.Parameters parameters)
+            {
+                parameters.getRamlFiles().set(ramlFilePaths);
+                parameters.getStateFiles().set(stateFilePaths);
+                parameters.getOutputDirectory().set(getOutputDirectory());
+                parameters.getBasePackageName().set(getBasePackageName());
+                parameters.getJaxrsVersion().set(getJaxrsVersion());
+                parameters.getUseJsr303Annotations().set(getUseJsr303Annotations());
+                parameters.getJsonMapper().set(getJsonMapper());
+                parameters.getSchemaLocation().set(getSchemaLocation());
+                parameters.getSharedModelPackageName().set(getSharedModelPackageName());
+            }
+        });
+    }
+
+    /**
+     * Records the inputs and outputs of the generated RAML files, so the next incremental
+     * generations know what they depend on and which of their files became stale.
+     */
+    private void recordStates(final GenerationManifest manifest,
+                              final List<File> generatedRamlFiles,
+                              final List<File> stateFiles) throws IOException
+    {
+        for (int i = 0; i < stateFiles.size(); i++)
+        {
+            final File ramlFile = generatedRamlFiles.get(i);
+            final File stateFile = stateFiles.get(i);
+            if (!stateFile.isFile())
+            {
+                // failed: the next generation won't be incremental
+                continue;
+            }
+
+            final List<String> inputs = new ArrayList<String>();
+            final List<String> outputs = new ArrayList<String>();
+            for (final String line : Files.readAllLines(stateFile.toPath(), StandardCharsets.UTF_8))
+            {
+                if (line.startsWith(GenerateRamlFiles.INPUT_PREFIX))
+                {
+                    inputs.add(relativize(line.substring(GenerateRamlFiles.INPUT_PREFIX.length())));
+                }
+                else if (line.startsWith(GenerateRamlFiles.OUTPUT_PREFIX))
+                {
+                    outputs.add(line.substring(GenerateRamlFiles.OUTPUT_PREFIX.length()));
+                }
+            }
+
+            // change detection is Gradle's job, the manifest only tracks dependencies and outputs
+            manifest.update(relativize(ramlFile), new GenerationManifest.Entry(null, inputs, outputs));
+        }
+    }
+
+    private String relativize(final String resourceName)
+    {
+        if (resourceName.startsWith("file:"))
+        {
+            return relativize(new File(URI.create(resourceName)));
+        }
+
+        final File file = new File(resourceName);
+        return file.isAbsolute() ? relativize(file) : resourceName;
+    }
+
+    private String relativize(final File file)
+    {
+        final URI projectDirectory = getProjectDirectory().get().getAsFile().toURI();
+        return projectDirectory.relativize(file.getAbsoluteFile().toURI().normalize()).getPath();
+    }
+}
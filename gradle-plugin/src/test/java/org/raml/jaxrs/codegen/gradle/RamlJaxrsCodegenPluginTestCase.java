@@ -0,0 +1,236 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.raml.jaxrs.codegen.core.GenerationManifest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RamlJaxrsCodegenPluginTestCase
+{
+    private static final String TASK_PATH = ":" + RamlJaxrsCodegenPlugin.TASK_NAME;
+    private static final String OUTPUT_PATH = "build/generated-sources/raml-jaxrs";
+
+    private static final String ITEMS_RAML = ramlFile("Items", "items", "item", "name");
+    private static final String PARTS_RAML = ramlFile("Parts", "parts", "part", "sku");
+    // another shape of item, whose class name depends on the item of ITEMS_RAML when they share model classes
+    private static final String ITEM_PARTS_RAML = ramlFile("Parts", "parts", "item", "sku");
+
+    @Rule
+    public TemporaryFolder projectFolder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder buildCacheFolder = new TemporaryFolder();
+
+    @Test
+    public void isUpToDateWhenNothingChanged() throws Exception
+    {
+        final File projectDirectory = createProject(null, ITEMS_RAML, PARTS_RAML);
+
+        assertThat(build(projectDirectory).task(TASK_PATH).getOutcome(), is(TaskOutcome.SUCCESS));
+        assertThat(build(projectDirectory).task(TASK_PATH).getOutcome(), is(TaskOutcome.UP_TO_DATE));
+    }
+
+    @Test
+    public void restoresOutputFromTheBuildCache() throws Exception
+    {
+        final File projectDirectory = createProject(null, ITEMS_RAML, PARTS_RAML);
+        assertThat(build(projectDirectory, "--build-cache").task(TASK_PATH).getOutcome(), is(TaskOutcome.SUCCESS));
+        final Map<String, byte[]> generatedFiles = readGeneratedFiles(projectDirectory);
+
+        deleteRecursively(new File(projectDirectory, OUTPUT_PATH));
+
+        assertThat(build(projectDirectory, "--build-cache").task(TASK_PATH).getOutcome(),
+            is(TaskOutcome.FROM_CACHE));
+        assertSameFiles(readGeneratedFiles(projectDirectory), generatedFiles);
+    }
+
+    @Test
+    public void generatesOnlyTheChangedRamlFiles() throws Exception
+    {
+        final File projectDirectory = createProject(null, ITEMS_RAML, PARTS_RAML);
+        build(projectDirectory);
+
+        final String changedPartsRaml = PARTS_RAML.replace("/parts", "/pieces");
+        write(projectDirectory, "src/main/raml/b.raml", changedPartsRaml);
+
+        final BuildResult result = build(projectDirectory, "--info");
+        assertThat(result.task(TASK_PATH).getOutcome(), is(TaskOutcome.SUCCESS));
+        assertThat(getGeneratedRamlFilesLine(result), containsString("b.raml"));
+        assertThat(getGeneratedRamlFilesLine(result), not(containsString("a.raml")));
+
+        assertSameFiles(readGeneratedFiles(projectDirectory), generateFromScratch(null, ITEMS_RAML,
+            changedPartsRaml));
+    }
+
+    @Test
+    public void generatesAllTheRamlFilesSharingModelClasses() throws Exception
+    {
+        final String sharedModelPackageName = "org.raml.jaxrs.test.gradle.shared";
+        final File projectDirectory = createProject(sharedModelPackageName, ITEMS_RAML, ITEM_PARTS_RAML);
+        build(projectDirectory);
+
+        final String changedPartsRaml = ITEM_PARTS_RAML.replace("/parts", "/pieces");
+        write(projectDirectory, "src/main/raml/b.raml", changedPartsRaml);
+
+        final BuildResult result = build(projectDirectory, "--info");
+        assertThat(result.task(TASK_PATH).getOutcome(), is(TaskOutcome.SUCCESS));
+        assertThat(getGeneratedRamlFilesLine(result), containsString("a.raml"));
+        assertThat(getGeneratedRamlFilesLine(result), containsString("b.raml"));
+
+        assertSameFiles(readGeneratedFiles(projectDirectory), generateFromScratch(sharedModelPackageName,
+            ITEMS_RAML, changedPartsRaml));
+    }
+
+    private static String ramlFile(final String title,
+                                   final String resource,
+                                   final String schema,
+                                   final String property)
+    {
+        return "#%RAML 0.8\ntitle: " + title + "\nschemas:\n"
+               + "  - " + schema + ": |\n"
+               + "      { \"type\": \"object\", \"properties\": { \"" + property + "\": { \"type\": \"string\" } } }\n"
+               + "/" + resource + ":\n  get:\n    responses:\n      200:\n        body:\n"
+               + "          application/json:\n            schema: " + schema + "\n";
+    }
+
+    private File createProject(final String sharedModelPackageName, final String aRaml, final String bRaml)
+        throws IOException
+    {
+        final File projectDirectory = projectFolder.newFolder();
+        final String buildCacheDirectory = buildCacheFolder.getRoot().getAbsolutePath().replace('\\', '/');
+
+        write(projectDirectory, "settings.gradle", "rootProject.name = 'raml-test'\n"
+                                                   + "buildCache { local { directory = file('"
+                                                   + buildCacheDirectory + "') } }\n");
+        write(projectDirectory, "build.gradle", "plugins { id 'org.raml.jaxrs-codegen' }\n"
+                                                + "generateRamlJaxrs {\n"
+                                                + "    basePackageName = 'org.raml.jaxrs.test.gradle'\n"
+                                                + (sharedModelPackageName == null ? "" :
+                                                    "    sharedModelPackageName = '" + sharedModelPackageName
+                                                    + "'\n")
+                                                + "}\n");
+        write(projectDirectory, "src/main/raml/a.raml", aRaml);
+        write(projectDirectory, "src/main/raml/b.raml", bRaml);
+        return projectDirectory;
+    }
+
+    private Map<String, byte[]> generateFromScratch(final String sharedModelPackageName,
+                                                    final String aRaml,
+                                                    final String bRaml) throws IOException
+    {
+        final File projectDirectory = createProject(sharedModelPackageName, aRaml, bRaml);
+        build(projectDirectory);
+        return readGeneratedFiles(projectDirectory);
+    }
+
+    private static BuildResult build(final File projectDirectory, final String... arguments)
+    {
+        final String[] allArguments = Arrays.copyOf(arguments, arguments.length + 2);
+        allArguments[arguments.length] = RamlJaxrsCodegenPlugin.TASK_NAME;
+        allArguments[arguments.length + 1] = "--stacktrace";
+
+        return GradleRunner.create()
+            .withProjectDir(projectDirectory)
+            .withPluginClasspath()
+            .withArguments(allArguments)
+            .build();
+    }
+
+    private static String getGeneratedRamlFilesLine(final BuildResult result)
+    {
+        for (final String line : result.getOutput().split("\\r?\\n"))
+        {
+            if (line.startsWith("Generating Java classes from: "))
+            {
+                return line;
+            }
+        }
+        throw new AssertionError("No generated RAML files in: " + result.getOutput());
+    }
+
+    private static Map<String, byte[]> readGeneratedFiles(final File projectDirectory) throws IOException
+    {
+        final File outputDirectory = new File(projectDirectory, OUTPUT_PATH);
+        final Map<String, byte[]> generatedFiles = new TreeMap<String, byte[]>();
+        readFiles(outputDirectory, outputDirectory, generatedFiles);
+        // its keys depend on the generation order
+        generatedFiles.remove(GenerationManifest.FILE_NAME);
+        return generatedFiles;
+    }
+
+    private static void readFiles(final File directory, final File file, final Map<String, byte[]> files)
+        throws IOException
+    {
+        if (file.isDirectory())
+        {
+            for (final File child : file.listFiles())
+            {
+                readFiles(directory, child, files);
+            }
+        }
+        else
+        {
+            files.put(directory.toURI().relativize(file.toURI()).getPath(), Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    private static void assertSameFiles(final Map<String, byte[]> files, final Map<String, byte[]> expectedFiles)
+    {
+        assertThat(files.keySet(), equalTo(expectedFiles.keySet()));
+        for (final Map.Entry<String, byte[]> file : files.entrySet())
+        {
+            assertThat(file.getKey(), new String(file.getValue(), StandardCharsets.UTF_8),
+                equalTo(new String(expectedFiles.get(file.getKey()), StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static void write(final File projectDirectory, final String path, final String content)
+        throws IOException
+    {
+        final File file = new File(projectDirectory, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteRecursively(final File file)
+    {
+        final File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (final File child : children)
+            {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -16,6 +16,7 @@
 package org.raml.jaxrs.codegen.maven;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -26,13 +27,32 @@ import org.apache.maven.project.MavenProject;
 import org.jsonschema2pojo.AnnotationStyle;
 import org.raml.jaxrs.codegen.core.Configuration;
 import org.raml.jaxrs.codegen.core.Configuration.JaxrsVersion;
+import org.raml.jaxrs.codegen.core.GenerationManifest;
+import org.raml.jaxrs.codegen.core.GenerationMetrics;
 import org.raml.jaxrs.codegen.core.Generator;
+import org.raml.jaxrs.codegen.core.IncrementalGenerator;
+import org.raml.jaxrs.codegen.core.RamlModelCache;
+import org.raml.jaxrs.codegen.core.SharedModelRegistry;
+import org.raml.jaxrs.codegen.core.SourceJarWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.maven.plugins.annotations.ResolutionScope.COMPILE_PLUS_RUNTIME;
 
@@ -40,12 +60,15 @@ import static org.apache.maven.plugins.annotations.ResolutionScope.COMPILE_PLUS_
  * When invoked, this goals read one or more <a href="http://raml.org">RAML</a> files and produces
  * JAX-RS annotated Java classes.
  */
-@Mojo(name = "generate", requiresProject = true, threadSafe = false, requiresDependencyResolution = COMPILE_PLUS_RUNTIME, defaultPhase = LifecyclePhase.GENERATE_SOURCES)
+@Mojo(name = "generate", requiresProject = true, threadSafe = true, requiresDependencyResolution = COMPILE_PLUS_RUNTIME, defaultPhase = LifecyclePhase.GENERATE_SOURCES)
 public class RamlJaxrsCodegenMojo extends AbstractMojo
 {
     @Parameter(defaultValue = "${project}")
     private MavenProject project;
 
+    @Parameter(defaultValue = "${mojoExecution.executionId}", readonly = true)
+    private String executionId;
+
     /**
      * Skip plug-in execution.
      */
@@ -107,15 +130,220 @@ public class RamlJaxrsCodegenMojo extends AbstractMojo
     @Parameter(property = "jsonMapper", defaultValue = "jackson1")
     private String jsonMapper;
 
+    /**
+     * Set the content type of responses with MediaType constants, parsed once per response class,
+     * instead of a Content-Type header string parsed by the JAX-RS runtime for each response.
+     */
+    @Parameter(property = "mediaTypeConstants", defaultValue = "false")
+    private boolean mediaTypeConstants;
+
+    /**
+     * Make resource methods return javax.ws.rs.core.Response, built directly by the static response
+     * factories, instead of a generated response class wrapping it.
+     */
+    @Parameter(property = "lightweightResponses", defaultValue = "false")
+    private boolean lightweightResponses;
+
+    /**
+     * With JAX-RS 1.1, make response factories without any argument build their response once, as a
+     * template, and return a copy of it for each call.
+     */
+    @Parameter(property = "cachedResponses", defaultValue = "false")
+    private boolean cachedResponses;
+
+    /**
+     * With JAX-RS 2.0, make resource methods take a suspended AsyncResponse, to resume with their
+     * response class, instead of returning it.
+     */
+    @Parameter(property = "asyncResponses", defaultValue = "false")
+    private boolean asyncResponses;
+
+    /**
+     * Generate an additional factory for JSON array responses, taking an iterator of their elements
+     * which are serialized one by one instead of being held in memory all together.
+     */
+    @Parameter(property = "streamingArrayResponses", defaultValue = "false")
+    private boolean streamingArrayResponses;
+
+    /**
+     * The number of RAML files to generate concurrently. Each RAML file gets its own generator and
+     * configuration, so this is only useful when several RAML files are processed. Ignored when
+     * sharedModelPackageName is set, as the names of shared model classes depend on the order RAML
+     * files are generated in.
+     */
+    @Parameter(property = "generatorThreads", defaultValue = "1")
+    private int generatorThreads;
+
+    /**
+     * Only regenerate the RAML files whose inputs (RAML file, included files, schemas or
+     * configuration) have changed since the previous generation, and delete the files they don't
+     * generate anymore. The state of the previous generation is kept in the output directory, for
+     * each execution.
+     */
+    @Parameter(property = "incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * When set, model classes are generated once in this package and shared by all the RAML files,
+     * instead of being generated for each RAML file in the "model" sub-package of basePackageName.
+     */
+    @Parameter(property = "sharedModelPackageName")
+    private String sharedModelPackageName;
+
+    /**
+     * Only write generated files whose content has changed, and delete the files this execution
+     * generated before but doesn't generate anymore, so unchanged files keep their timestamps and
+     * aren't recompiled. The generated files are recorded in the output directory, for each execution:
+     * other files are never deleted.
+     */
+    @Parameter(property = "writeOnlyChangedFiles", defaultValue = "false")
+    private boolean writeOnlyChangedFiles;
+
+    /**
+     * The number of threads comparing and writing generated files when writeOnlyChangedFiles is
+     * enabled.
+     */
+    @Parameter(property = "writerThreads", defaultValue = "1")
+    private int writerThreads;
+
+    /**
+     * The number of threads generating the top-level resources of each RAML file concurrently. The
+     * output is the same as with a single thread. Can't be combined with streamingGeneration.
+     */
+    @Parameter(property = "resourceThreads", defaultValue = "1")
+    private int resourceThreads;
+
+    /**
+     * The number of threads converting the JSON schemas of each RAML file to classes. When greater
+     * than 1, all the schemas are converted up front instead of while building resources.
+     */
+    @Parameter(property = "schemaThreads", defaultValue = "1")
+    private int schemaThreads;
+
+    /**
+     * Write each top-level resource as soon as it is generated and release it, so the memory needed
+     * is bounded by the largest resource instead of the whole API. Useful for very large RAML files.
+     */
+    @Parameter(property = "streamingGeneration", defaultValue = "false")
+    private boolean streamingGeneration;
+
+    /**
+     * When set, parsed RAML models are cached in this directory (for example
+     * ${project.build.directory}/raml-model-cache) and reused by the next builds as long as neither
+     * the RAML files nor the resources they include change.
+     */
+    @Parameter(property = "ramlModelCacheDirectory")
+    private File ramlModelCacheDirectory;
+
+    /**
+     * The maximum number of RAML models kept in ramlModelCacheDirectory, the least recently used ones
+     * being evicted first.
+     */
+    @Parameter(property = "ramlModelCacheSize", defaultValue = "100")
+    private int ramlModelCacheSize;
+
+    /**
+     * When set, the time spent in each generation phase and the counts of generated items are
+     * written to this JSON file (for example ${project.build.directory}/raml-jaxrs-metrics.json) and
+     * logged as a summary.
+     */
+    @Parameter(property = "metricsFile")
+    private File metricsFile;
+
+    /**
+     * When set, generated sources are written straight into this JAR file (for example
+     * ${project.build.directory}/raml-jaxrs-sources.jar) instead of outputDirectory.
+     */
+    @Parameter(property = "sourceJar")
+    private File sourceJar;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException
     {
-        if (skip)
+        if (isSkip())
         {
             getLog().info("Skipping execution...");
             return;
         }
 
+        final Configuration configuration = prepare();
+
+        if (sourceJar != null)
+        {
+            try
+            {
+                configuration.setSourceJarWriter(new SourceJarWriter(sourceJar));
+            }
+            catch (final IOException ioe)
+            {
+                throw new MojoExecutionException("Failed to create source JAR: " + sourceJar, ioe);
+            }
+        }
+
+        final Collection<File> ramlFiles = getRamlFiles();
+        // records the generated files, to only delete the stale ones of this execution
+        final GenerationManifest manifest = incremental || (writeOnlyChangedFiles && (sourceJar == null))
+            ? loadManifest()
+            : null;
+
+        try
+        {
+            final boolean concurrent = (generatorThreads > 1) && (ramlFiles.size() > 1);
+            if (concurrent && StringUtils.isNotBlank(sharedModelPackageName))
+            {
+                getLog().info("Generating RAML files one after the other, to share model classes");
+            }
+
+            if (concurrent && StringUtils.isBlank(sharedModelPackageName))
+            {
+                generateConcurrently(ramlFiles, configuration, manifest);
+            }
+            else
+            {
+                if (incremental && StringUtils.isNotBlank(sharedModelPackageName))
+                {
+                    invalidateAllIfAnyChanged(ramlFiles, configuration, manifest);
+                }
+
+                for (final File ramlFile : ramlFiles)
+                {
+                    try
+                    {
+                        generate(ramlFile, configuration, manifest);
+                    }
+                    catch (final Exception e)
+                    {
+                        e.printStackTrace();
+                        throw new MojoExecutionException("Error generating Java classes from: " + ramlFile, e);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            if (manifest != null)
+            {
+                saveManifest(manifest, ramlFiles);
+            }
+
+            if (metricsFile != null)
+            {
+                writeMetrics(configuration.getGenerationMetrics());
+            }
+
+            if (sourceJar != null)
+            {
+                closeSourceJar(configuration.getSourceJarWriter());
+            }
+        }
+    }
+
+    /**
+     * Checks the sources, prepares the output directory and creates the configuration shared by all
+     * the RAML files.
+     */
+    protected Configuration prepare() throws MojoExecutionException
+    {
         if ((sourceDirectory == null) && (sourcePaths == null))
         {
             throw new MojoExecutionException("One of sourceDirectory or sourcePaths must be provided");
@@ -151,6 +379,32 @@ public class RamlJaxrsCodegenMojo extends AbstractMojo
             configuration.setOutputDirectory(outputDirectory);
             configuration.setUseJsr303Annotations(useJsr303Annotations);
             configuration.setJsonMapper(AnnotationStyle.valueOf(jsonMapper.toUpperCase()));
+            configuration.setMediaTypeConstants(mediaTypeConstants);
+            configuration.setLightweightResponses(lightweightResponses);
+            configuration.setCachedResponses(cachedResponses);
+            configuration.setAsyncResponses(asyncResponses);
+            configuration.setStreamingArrayResponses(streamingArrayResponses);
+
+            if (StringUtils.isNotBlank(sharedModelPackageName))
+            {
+                configuration.setSharedModelRegistry(new SharedModelRegistry(sharedModelPackageName));
+            }
+
+            configuration.setWriteOnlyChangedFiles(writeOnlyChangedFiles);
+            configuration.setWriterThreads(writerThreads);
+            configuration.setStreamingGeneration(streamingGeneration);
+            configuration.setResourceThreads(resourceThreads);
+            configuration.setSchemaThreads(schemaThreads);
+
+            if (ramlModelCacheDirectory != null)
+            {
+                configuration.setRamlModelCache(new RamlModelCache(ramlModelCacheDirectory, ramlModelCacheSize));
+            }
+
+            if (metricsFile != null)
+            {
+                configuration.setGenerationMetrics(new GenerationMetrics());
+            }
         }
         catch (final Exception e)
         {
@@ -159,29 +413,201 @@ public class RamlJaxrsCodegenMojo extends AbstractMojo
 
         project.addCompileSourceRoot(outputDirectory.getPath());
 
-        File currentSourcePath = null;
+        return configuration;
+    }
+
+    protected boolean isSkip()
+    {
+        return skip;
+    }
+
+    protected File getSourceDirectory()
+    {
+        return sourceDirectory;
+    }
+
+    protected GenerationManifest loadManifest() throws MojoExecutionException
+    {
+        try
+        {
+            // executions sharing the output directory must not delete each other's files
+            return GenerationManifest.load(outputDirectory, executionId);
+        }
+        catch (final IOException ioe)
+        {
+            throw new MojoExecutionException("Failed to load generation manifest from: " + outputDirectory, ioe);
+        }
+    }
 
+    /**
+     * The shared model registry is empty at the start of each execution, so RAML files sharing model
+     * classes are all regenerated when any of them has changed.
+     */
+    private void invalidateAllIfAnyChanged(final Collection<File> ramlFiles,
+                                           final Configuration configuration,
+                                           final GenerationManifest manifest) throws MojoExecutionException
+    {
         try
         {
-            final Generator generator = new Generator();
+            final Map<URL, Configuration> ramlFileConfigurations = new LinkedHashMap<URL, Configuration>();
+            for (final File ramlFile : ramlFiles)
+            {
+                ramlFileConfigurations.put(ramlFile.toURI().toURL(),
+                    createRamlFileConfiguration(ramlFile, configuration));
+            }
+
+            new IncrementalGenerator(new Generator(), manifest).invalidateAllIfAnyChanged(ramlFileConfigurations);
+        }
+        catch (final IOException ioe)
+        {
+            throw new MojoExecutionException("Failed to check the RAML files for changes", ioe);
+        }
+    }
 
-            for (final File ramlFile : getRamlFiles())
+    private void saveManifest(final GenerationManifest manifest, final Collection<File> ramlFiles)
+    {
+        try
+        {
+            final List<String> ramlFileKeys = new ArrayList<String>();
+            for (final File ramlFile : ramlFiles)
             {
-                getLog().info("Generating Java classes from: " + ramlFile);
-                currentSourcePath = ramlFile;
-                File schemaDir = new File(ramlFile.getParentFile(), schemaLocation);
-                configuration.setSchemaLocation(schemaDir);
-                generator.run(ramlFile.toURI().toURL(), configuration);
+                ramlFileKeys.add(ramlFile.toURI().toURL().toString());
             }
+
+            manifest.retain(ramlFileKeys);
+            manifest.save();
         }
-        catch (final Exception e)
+        catch (final IOException ioe)
+        {
+            // the next generation will be a full one
+            getLog().warn("Failed to save generation manifest in: " + outputDirectory, ioe);
+        }
+    }
+
+    private void closeSourceJar(final SourceJarWriter sourceJarWriter) throws MojoExecutionException
+    {
+        try
         {
-            e.printStackTrace();
-            throw new MojoExecutionException("Error generating Java classes from: " + currentSourcePath, e);
+            sourceJarWriter.close();
         }
+        catch (final IOException ioe)
+        {
+            throw new MojoExecutionException("Failed to write source JAR: " + sourceJar, ioe);
+        }
+    }
+
+    private void writeMetrics(final GenerationMetrics metrics)
+    {
+        getLog().info("Generation metrics: " + metrics.toSummary());
+
+        try
+        {
+            metrics.write(metricsFile);
+        }
+        catch (final IOException ioe)
+        {
+            getLog().warn("Failed to write generation metrics to: " + metricsFile, ioe);
+        }
+    }
+
+    private Set<String> generateConcurrently(final Collection<File> ramlFiles,
+                                             final Configuration configuration,
+                                             final GenerationManifest manifest)
+        throws MojoExecutionException
+    {
+        getLog().info("Generating Java classes with " + generatorThreads + " threads");
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(generatorThreads,
+            ramlFiles.size()));
+
+        final Map<File, Future<Set<String>>> generations = new LinkedHashMap<File, Future<Set<String>>>();
+        try
+        {
+            for (final File ramlFile : ramlFiles)
+            {
+                generations.put(ramlFile, executorService.submit(new Callable<Set<String>>()
+                {
+                    @Override
+                    public Set<String> call() throws Exception
+                    {
+                        return generate(ramlFile, configuration, manifest);
+                    }
+                }));
+            }
+
+            final Set<String> generatedFiles = new HashSet<String>();
+            final Map<File, Throwable> failures = new LinkedHashMap<File, Throwable>();
+            for (final Entry<File, Future<Set<String>>> generation : generations.entrySet())
+            {
+                try
+                {
+                    generatedFiles.addAll(generation.getValue().get());
+                }
+                catch (final ExecutionException ee)
+                {
+                    failures.put(generation.getKey(), ee.getCause());
+                }
+                catch (final InterruptedException ie)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException("Interrupted while generating Java classes", ie);
+                }
+            }
+
+            if (!failures.isEmpty())
+            {
+                final List<String> failedPaths = new ArrayList<String>();
+                for (final Entry<File, Throwable> failure : failures.entrySet())
+                {
+                    getLog().error("Error generating Java classes from: " + failure.getKey(), failure.getValue());
+                    failedPaths.add(failure.getKey().getPath());
+                }
+
+                throw new MojoExecutionException("Error generating Java classes from: " + failedPaths,
+                    failures.values().iterator().next());
+            }
+
+            return generatedFiles;
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    private Set<String> generate(final File ramlFile,
+                                 final Configuration configuration,
+                                 final GenerationManifest manifest) throws Exception
+    {
+        getLog().info("Generating Java classes from: " + ramlFile);
+
+        // each RAML file gets its own configuration, context and types
+        final Configuration ramlFileConfiguration = createRamlFileConfiguration(ramlFile, configuration);
+
+        if (incremental)
+        {
+            return new IncrementalGenerator(new Generator(), manifest).run(ramlFile.toURI().toURL(),
+                ramlFileConfiguration);
+        }
+
+        final Set<String> generatedFiles = new Generator().run(ramlFile.toURI().toURL(), ramlFileConfiguration);
+        if (manifest != null)
+        {
+            // without a fingerprint, so an incremental generation wouldn't consider it up to date
+            manifest.update(ramlFile.toURI().toURL().toString(),
+                new GenerationManifest.Entry(null, Collections.<String>emptySet(), generatedFiles));
+        }
+        return generatedFiles;
+    }
+
+    protected Configuration createRamlFileConfiguration(final File ramlFile, final Configuration configuration)
+    {
+        final Configuration ramlFileConfiguration = new Configuration(configuration);
+        ramlFileConfiguration.setSchemaLocation(new File(ramlFile.getParentFile(), schemaLocation));
+        return ramlFileConfiguration;
     }
 
-    private Collection<File> getRamlFiles() throws MojoExecutionException
+    protected Collection<File> getRamlFiles() throws MojoExecutionException
     {
         if (sourceDirectory != null)
         {
@@ -193,7 +619,11 @@ public class RamlJaxrsCodegenMojo extends AbstractMojo
 
             getLog().info("Looking for RAML files in and below: " + sourceDirectory);
 
-            return FileUtils.listFiles(sourceDirectory, new String[]{"raml", "yaml"}, true);
+            // in a stable order, which the names of shared model classes depend on
+            final List<File> ramlFiles = new ArrayList<File>(FileUtils.listFiles(sourceDirectory,
+                new String[]{"raml", "yaml"}, true));
+            Collections.sort(ramlFiles);
+            return ramlFiles;
         }
         else
         {
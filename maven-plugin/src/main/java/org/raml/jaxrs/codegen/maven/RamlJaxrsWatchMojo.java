@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013 (c) MuleSoft, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.raml.jaxrs.codegen.maven;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.raml.jaxrs.codegen.core.Configuration;
+import org.raml.jaxrs.codegen.core.GenerationWatcher;
+import org.raml.jaxrs.codegen.core.GenerationWatcher.ConfigurationFactory;
+import org.raml.jaxrs.codegen.core.Generator;
+
+import java.io.File;
+import java.util.Collection;
+
+import static org.apache.maven.plugins.annotations.ResolutionScope.COMPILE_PLUS_RUNTIME;
+
+/**
+ * When invoked, this goal generates JAX-RS annotated Java classes from one or more
+ * <a href="http://raml.org">RAML</a> files, then keeps watching the RAML files, the files they
+ * include and their schemas, and regenerates the affected RAML files on each change until the build
+ * is interrupted. The RAML files created in the <code>sourceDirectory</code> are generated and
+ * watched too.
+ */
+@Mojo(name = "watch", requiresProject = true, requiresDependencyResolution = COMPILE_PLUS_RUNTIME)
+public class RamlJaxrsWatchMojo extends RamlJaxrsCodegenMojo
+{
+    /**
+     * The interval, in milliseconds, between two checks for changes.
+     */
+    @Parameter(property = "pollingInterval", defaultValue = "500")
+    private long pollingInterval;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException
+    {
+        if (isSkip())
+        {
+            getLog().info("Skipping execution...");
+            return;
+        }
+
+        final Configuration configuration = prepare();
+
+        // one warm generator serves all the regenerations
+        final GenerationWatcher watcher = new GenerationWatcher(new Generator(), loadManifest());
+        final ConfigurationFactory configurationFactory = new ConfigurationFactory()
+        {
+            @Override
+            public Configuration createConfiguration(final File ramlFile)
+            {
+                return createRamlFileConfiguration(ramlFile, configuration);
+            }
+        };
+
+        final Collection<File> ramlFiles = getRamlFiles();
+        if (getSourceDirectory() != null)
+        {
+            // the RAML files created in the source directory while watching are generated too
+            watcher.addRamlDirectory(getSourceDirectory(), configurationFactory);
+        }
+        else
+        {
+            for (final File ramlFile : ramlFiles)
+            {
+                watcher.addRamlFile(ramlFile, configurationFactory.createConfiguration(ramlFile));
+            }
+        }
+
+        try
+        {
+            watcher.watch(pollingInterval);
+        }
+        catch (final InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+            getLog().info("Stopped watching RAML files");
+        }
+    }
+}